@@ -0,0 +1,331 @@
+package com.ytchatbridge.relay;
+
+import com.google.gson.JsonParseException;
+import com.ytchatbridge.client.bridge.ChatProvider;
+import com.ytchatbridge.client.bridge.innertube.BootstrapCache;
+import com.ytchatbridge.client.bridge.innertube.InnertubeProvider;
+import com.ytchatbridge.client.bridge.ws.ChatFrames;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Headless fan-out relay for the wsBridge provider: each subscribed video is polled once, by the same
+ * {@link InnertubeProvider} the mod uses, and its chat is pushed to every subscriber.
+ * <p>
+ * Whatever arrives for a video within {@link #FLUSH_MS} is encoded once into a WebSocket frame and appended to the
+ * video's ring of the last {@link #RING} frames. Every subscriber has its own writer (a virtual thread) with a cursor
+ * into that ring, so a slow client only delays itself; once it is more than {@link #MAX_LAG} frames behind it skips to
+ * the newest frame, and memory stays at one ring per video however slow clients are. Idle videos get an empty batch
+ * every {@link #KEEPALIVE_MS}, and a video is polled for {@link #LINGER_MS} after its last subscriber leaves so
+ * reconnecting clients do not cost a new bootstrap.
+ * <p>
+ * {@code --synthetic <msgs/s>} replaces YouTube with generated chat (for load tests), and lines on stdin of the form
+ * {@code video<TAB>author<TAB>text} are published as they arrive.
+ * <pre>./gradlew :relay:run --args="--port 8787"</pre>
+ */
+public final class ChatRelay implements WsServer.Handler {
+    static final long FLUSH_MS = 50;
+    static final long KEEPALIVE_MS = 15_000;
+    static final long LINGER_MS = 60_000;
+    static final int RING = 128;
+    static final int MAX_LAG = RING / 2; // ~3s of frames at full rate
+
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final ChatFrames frames = new ChatFrames(); // shared by connection threads, guarded by itself
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "relay-flush");
+        t.setDaemon(true);
+        return t;
+    });
+    private final double syntheticPerSec;
+    private final BootstrapCache bootstrap = new BootstrapCache(Path.of("relay-bootstrap.json")); // in the working directory
+    private final AtomicLong skippedFrames = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong sentMessages = new AtomicLong();
+
+    ChatRelay(double syntheticPerSec) {
+        this.syntheticPerSec = syntheticPerSec;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8787;
+        double synthetic = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--synthetic" -> synthetic = Double.parseDouble(args[++i]);
+                default -> {
+                    System.err.println("usage: ChatRelay [--port 8787] [--synthetic msgs_per_sec]");
+                    System.exit(2);
+                }
+            }
+        }
+        ChatRelay relay = new ChatRelay(synthetic);
+        WsServer server = new WsServer(port, relay);
+        relay.start();
+        Thread stdin = new Thread(relay::readStdin, "relay-stdin");
+        stdin.setDaemon(true);
+        stdin.start();
+        System.out.println("Relay listening on ws://localhost:" + server.port()
+            + (synthetic > 0 ? ", synthetic " + synthetic + " msg/s per video" : ", polling YouTube"));
+        server.serve();
+    }
+
+    void start() {
+        timer.scheduleAtFixedRate(this::flush, FLUSH_MS, FLUSH_MS, TimeUnit.MILLISECONDS);
+        if (syntheticPerSec > 0) {
+            timer.scheduleAtFixedRate(() -> generate(syntheticPerSec * FLUSH_MS / 1000.0), 0, FLUSH_MS, TimeUnit.MILLISECONDS);
+        }
+        timer.scheduleAtFixedRate(() -> System.out.println(statsLine()), 60, 60, TimeUnit.SECONDS);
+    }
+
+    String statsLine() {
+        int subs = 0;
+        for (Topic t : topics.values()) subs += t.subscribers.size();
+        return "videos=" + topics.size() + " subscribers=" + subs + " frames=" + sentFrames.get() + " messages=" + sentMessages.get()
+            + " skippedFrames=" + skippedFrames.get() + " writeErrors=" + writeErrors.get();
+    }
+
+    /** Queues a message for the next batch; dropped when nobody is subscribed to the video. */
+    void publish(String videoId, ChatMessage msg) {
+        Topic t = topics.get(videoId);
+        if (t != null) t.onMessage(msg);
+    }
+
+    @Override
+    public void onOpen(WsServer.Connection c) {
+        // nothing until the client subscribes
+    }
+
+    @Override
+    public void onText(WsServer.Connection c, String text) {
+        String videoId;
+        synchronized (frames) {
+            try {
+                frames.decode(text);
+            } catch (JsonParseException e) {
+                return;
+            }
+            videoId = frames.sub;
+        }
+        if (videoId == null || videoId.isEmpty()) return;
+        unsubscribe(c);
+        Subscriber sub = new Subscriber(c);
+        sub.topic = topics.compute(videoId, (k, t) -> {
+            if (t == null) {
+                t = new Topic(k);
+                t.startSource();
+            }
+            if (t.linger != null) {
+                t.linger.cancel(false);
+                t.linger = null;
+            }
+            t.subscribers.add(sub);
+            return t;
+        });
+        c.attachment = sub;
+        sub.writer = Thread.ofVirtual().name("relay-writer-" + videoId).start(sub);
+    }
+
+    @Override
+    public void onClose(WsServer.Connection c) {
+        unsubscribe(c);
+    }
+
+    private void unsubscribe(WsServer.Connection c) {
+        if (!(c.attachment instanceof Subscriber sub)) return;
+        c.attachment = null;
+        sub.stop();
+        topics.computeIfPresent(sub.topic.videoId, (k, t) -> {
+            t.subscribers.remove(sub);
+            if (t.subscribers.isEmpty() && t.linger == null) t.linger = timer.schedule(() -> expire(k), LINGER_MS, TimeUnit.MILLISECONDS);
+            return t;
+        });
+    }
+
+    private void expire(String videoId) {
+        topics.computeIfPresent(videoId, (k, t) -> {
+            if (!t.subscribers.isEmpty()) return t;
+            t.stopSource();
+            return null;
+        });
+    }
+
+    private void flush() {
+        long now = System.currentTimeMillis();
+        for (Topic t : topics.values()) t.flush(now);
+    }
+
+    /** One video: its source, the messages waiting for the next flush, and the ring of recent frames. */
+    private final class Topic implements ChatProvider.Listener {
+        final String videoId;
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final AtomicReferenceArray<byte[]> ring = new AtomicReferenceArray<>(RING);
+        final AtomicLong seq = new AtomicLong(); // frames published; frame n is ring[n % RING] until overwritten
+        List<ChatMessage> pending = new ArrayList<>(); // guarded by this
+        ScheduledFuture<?> linger; // guarded by the topics map entry
+        volatile byte[] titleFrame;
+        long lastSentMs = System.currentTimeMillis(); // flusher thread only
+        double owed; // synthetic messages carried into the next tick, flusher thread only
+        private ChatProvider provider;
+        private String title = "";
+
+        Topic(String videoId) { this.videoId = videoId; }
+
+        void startSource() {
+            System.out.println("start " + videoId);
+            if (syntheticPerSec > 0) return;
+            provider = new InnertubeProvider(bootstrap);
+            provider.setListener(this);
+            provider.start(videoId);
+        }
+
+        void stopSource() {
+            System.out.println("stop " + videoId);
+            if (provider != null) provider.stop();
+        }
+
+        @Override
+        public void onMessage(ChatMessage msg) {
+            synchronized (this) {
+                pending.add(msg);
+            }
+        }
+
+        @Override
+        public void onInfo(String info) {
+            System.out.println("[" + videoId + "] " + info);
+        }
+
+        @Override
+        public void onError(String error) {
+            System.out.println("[" + videoId + "] error: " + error);
+            append(WsServer.textFrame(ChatFrames.error(error)));
+        }
+
+        void flush(long now) {
+            if (provider != null) {
+                String current = provider.status().channelTitle;
+                if (current != null && !current.isEmpty() && !current.equals(title)) {
+                    title = current;
+                    titleFrame = WsServer.textFrame(ChatFrames.title(current));
+                    append(titleFrame);
+                }
+            }
+            List<ChatMessage> batch;
+            synchronized (this) {
+                batch = pending;
+                if (batch.isEmpty() && now - lastSentMs < KEEPALIVE_MS) return;
+                pending = new ArrayList<>(Math.max(16, batch.size()));
+            }
+            lastSentMs = now;
+            sentMessages.addAndGet(batch.size());
+            append(WsServer.textFrame(ChatFrames.batch(batch)));
+        }
+
+        // The flusher, or a provider thread reporting an error
+        synchronized void append(byte[] frame) {
+            long n = seq.get();
+            ring.set((int) (n % RING), frame);
+            seq.set(n + 1);
+            sentFrames.incrementAndGet();
+            for (Subscriber s : subscribers) LockSupport.unpark(s.writer);
+        }
+    }
+
+    /** One client's cursor into its topic's ring, advanced by its own writer thread. */
+    private final class Subscriber implements Runnable {
+        final WsServer.Connection conn;
+        volatile Topic topic;
+        volatile Thread writer;
+        private volatile boolean stopped;
+
+        Subscriber(WsServer.Connection conn) { this.conn = conn; }
+
+        void stop() {
+            stopped = true;
+            Thread w = writer;
+            if (w != null) LockSupport.unpark(w);
+        }
+
+        @Override
+        public void run() {
+            Topic t = topic;
+            long cursor = t.seq.get(); // new subscribers start at the live edge
+            try {
+                byte[] title = t.titleFrame;
+                if (title != null) conn.sendFrame(title);
+                while (!stopped && !conn.closed) {
+                    long head = t.seq.get();
+                    if (cursor >= head) {
+                        LockSupport.park(this);
+                        continue;
+                    }
+                    if (head - cursor > MAX_LAG) {
+                        skippedFrames.addAndGet(head - 1 - cursor);
+                        cursor = head - 1;
+                    }
+                    byte[] frame = t.ring.get((int) (cursor % RING));
+                    if (t.seq.get() - cursor > RING) continue; // overwritten while we looked; the lag check skips ahead
+                    conn.sendFrame(frame);
+                    cursor++;
+                }
+            } catch (IOException e) {
+                writeErrors.incrementAndGet();
+                conn.close(); // the reader then sees the socket closed and unsubscribes
+            }
+        }
+    }
+
+    private static final String[] NAMES = {"alice", "bob", "carol", "dave", "erin", "frank", "grace", "heidi"};
+    private static final String[] WORDS = {"gg", "lol", "nice", "pog", "wow", "hello", "that", "was", "close", "again"};
+
+    private void generate(double perTick) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        for (Topic t : topics.values()) {
+            t.owed += perTick;
+            int n = (int) t.owed;
+            t.owed -= n;
+            for (int i = 0; i < n; i++) {
+                int r = rnd.nextInt(100);
+                ChatMessage.Role role = r == 0 ? ChatMessage.Role.MODERATOR : r < 10 ? ChatMessage.Role.MEMBER : ChatMessage.Role.USER;
+                StringBuilder text = new StringBuilder();
+                for (int w = 1 + rnd.nextInt(8); w > 0; w--) text.append(WORDS[rnd.nextInt(WORDS.length)]).append(' ');
+                t.onMessage(new ChatMessage(NAMES[rnd.nextInt(NAMES.length)] + rnd.nextInt(1000), text.toString().trim(), role, now));
+            }
+        }
+    }
+
+    private void readStdin() {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split("\t", 3);
+                if (f.length < 3) continue;
+                publish(f[0], new ChatMessage(f[1], f[2], ChatMessage.Role.USER, System.currentTimeMillis()));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ytchatbridge.relay;
+
+import com.ytchatbridge.client.bridge.ws.ChatFrames;
+import com.ytchatbridge.client.metrics.Histogram;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for {@link ChatRelay}: opens many wsBridge-style subscribers to one video and reports delivery
+ * delay (message timestamp to receipt) and throughput. {@code --slow n} makes n of them stall for 200 ms on every
+ * frame, to check that they are skipped ahead without holding back the others.
+ * <pre>./gradlew :relay:loadTest --args="--clients 500 --seconds 60 --slow 10"</pre>
+ * against a relay started with {@code --synthetic}.
+ */
+public final class RelayLoad {
+    private static final long SLOW_MS = 200;
+
+    public static void main(String[] args) throws Exception {
+        String url = "ws://localhost:8787";
+        String video = "loadtest";
+        int clients = 500;
+        int slow = 0;
+        int seconds = 60;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--video" -> video = args[++i];
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--slow" -> slow = Integer.parseInt(args[++i]);
+                case "--seconds" -> seconds = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("usage: RelayLoad [--url ws://localhost:8787] [--video id] [--clients 500] [--slow 0] [--seconds 60]");
+                    System.exit(2);
+                }
+            }
+        }
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        Histogram fast = new Histogram(true);
+        Histogram lagging = new Histogram(true);
+        AtomicLong fastMessages = new AtomicLong();
+        AtomicLong slowMessages = new AtomicLong();
+        AtomicInteger connected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<WebSocket> sockets = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            boolean isSlow = i < slow;
+            Client c = new Client(isSlow ? lagging : fast, isSlow ? slowMessages : fastMessages, isSlow);
+            try {
+                WebSocket ws = http.newWebSocketBuilder().buildAsync(URI.create(url), c).join();
+                ws.sendText(ChatFrames.subscribe(video), true).join();
+                sockets.add(ws);
+                connected.incrementAndGet();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+            }
+        }
+        System.out.println("connected=" + connected + " failed=" + failed + (slow > 0 ? " (" + slow + " slow)" : ""));
+        long t0 = System.nanoTime();
+        for (int s = 1; s <= seconds; s++) {
+            Thread.sleep(1000);
+            if (s % 10 == 0 || s == seconds) {
+                double el = (System.nanoTime() - t0) / 1e9;
+                System.out.printf("%3ds fast: %.0f msg/s delay %s%n", s, fastMessages.get() / el, fast.summary());
+                if (slow > 0) System.out.printf("     slow: %.0f msg/s delay %s%n", slowMessages.get() / el, lagging.summary());
+            }
+        }
+        for (WebSocket ws : sockets) ws.abort();
+    }
+
+    private static final class Client implements WebSocket.Listener {
+        private final Histogram delay;
+        private final AtomicLong messages;
+        private final boolean slow;
+        private final StringBuilder text = new StringBuilder();
+        private final ChatFrames frames = new ChatFrames();
+
+        Client(Histogram delay, AtomicLong messages, boolean slow) {
+            this.delay = delay;
+            this.messages = messages;
+            this.slow = slow;
+        }
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            text.append(data);
+            if (last) {
+                frames.decode(text);
+                text.setLength(0);
+                long now = System.currentTimeMillis();
+                for (ChatMessage m : frames.messages) delay.record((now - m.timestamp) * 1000);
+                messages.addAndGet(frames.messages.size());
+                if (slow) {
+                    try {
+                        Thread.sleep(SLOW_MS); // stop reading; the relay's socket buffer for us fills up
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            ws.request(1);
+            return null;
+        }
+    }
+}
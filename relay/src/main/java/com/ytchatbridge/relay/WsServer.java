@@ -0,0 +1,216 @@
+package com.ytchatbridge.relay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Just enough RFC 6455 for the relay: HTTP upgrade, unfragmented text frames out, masked client frames in
+ * (text, ping, close; continuation frames are reassembled). Each connection's reader is a virtual thread, so
+ * hundreds of idle subscribers cost little more than their sockets. No TLS or extensions; put it behind a
+ * reverse proxy for anything beyond a LAN.
+ */
+final class WsServer {
+    private static final String GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int MAX_FRAME = 64 * 1024; // clients only send subscriptions
+    private static final int SEND_BUFFER = 64 * 1024; // bounds what the kernel holds for a stalled client
+
+    interface Handler {
+        void onOpen(Connection c);
+        void onText(Connection c, String text);
+        void onClose(Connection c);
+    }
+
+    private final ServerSocket server;
+    private final Handler handler;
+
+    WsServer(int port, Handler handler) throws IOException {
+        this.server = new ServerSocket(port, 1024);
+        this.handler = handler;
+    }
+
+    int port() { return server.getLocalPort(); }
+
+    void serve() throws IOException {
+        while (!server.isClosed()) {
+            Socket s = server.accept();
+            Thread.ofVirtual().name("relay-conn-" + s.getPort()).start(() -> handle(s));
+        }
+    }
+
+    void close() throws IOException { server.close(); }
+
+    private void handle(Socket s) {
+        Connection c = null;
+        try (s) {
+            s.setTcpNoDelay(true);
+            s.setSendBufferSize(SEND_BUFFER);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            OutputStream out = new BufferedOutputStream(s.getOutputStream(), 64 * 1024);
+            if (!handshake(in, out)) return;
+            c = new Connection(s, out);
+            handler.onOpen(c);
+            readFrames(c, in);
+        } catch (IOException e) {
+            // peer went away
+        } finally {
+            if (c != null) {
+                c.closed = true;
+                handler.onClose(c);
+            }
+        }
+    }
+
+    private static boolean handshake(InputStream in, OutputStream out) throws IOException {
+        String key = null;
+        String line = readLine(in);
+        if (line == null || !line.startsWith("GET ")) return false;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().toLowerCase(Locale.ROOT).equals("sec-websocket-key")) {
+                key = line.substring(colon + 1).trim();
+            }
+        }
+        if (key == null) {
+            out.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return false;
+        }
+        String accept;
+        try {
+            accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1")
+                .digest((key + GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JDK has SHA-1
+        }
+        out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+            + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return true;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') return sb.toString();
+            if (b != '\r') sb.append((char) b);
+            if (sb.length() > 8192) throw new IOException("Header line too long");
+        }
+        return sb.isEmpty() ? null : sb.toString();
+    }
+
+    private void readFrames(Connection c, DataInputStream in) throws IOException {
+        byte[] message = new byte[0];
+        int messageLen = 0;
+        while (true) {
+            int b0 = in.readUnsignedByte();
+            int b1 = in.readUnsignedByte();
+            boolean fin = (b0 & 0x80) != 0;
+            int opcode = b0 & 0x0F;
+            long len = b1 & 0x7F;
+            if (len == 126) len = in.readUnsignedShort();
+            else if (len == 127) len = in.readLong();
+            if (len < 0 || len > MAX_FRAME || messageLen + len > MAX_FRAME) throw new IOException("Frame too large");
+            byte[] mask = new byte[4];
+            if ((b1 & 0x80) != 0) in.readFully(mask);
+            byte[] payload = new byte[(int) len];
+            in.readFully(payload);
+            for (int i = 0; i < payload.length; i++) payload[i] ^= mask[i & 3];
+            switch (opcode) {
+                case 0x0, 0x1 -> { // continuation, text
+                    if (message.length < messageLen + payload.length) message = Arrays.copyOf(message, messageLen + payload.length);
+                    System.arraycopy(payload, 0, message, messageLen, payload.length);
+                    messageLen += payload.length;
+                    if (fin) {
+                        handler.onText(c, new String(message, 0, messageLen, StandardCharsets.UTF_8));
+                        messageLen = 0;
+                    }
+                }
+                case 0x8 -> { // close: echo it and stop reading
+                    c.send(0x8, payload);
+                    return;
+                }
+                case 0x9 -> c.send(0xA, payload); // ping -> pong
+                default -> { } // pong, binary: ignored
+            }
+        }
+    }
+
+    static byte[] textFrame(String text) {
+        return frame(0x1, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] frame(int opcode, byte[] payload) {
+        int n = payload.length;
+        int header = n < 126 ? 2 : n < 65536 ? 4 : 10;
+        byte[] f = new byte[header + n];
+        f[0] = (byte) (0x80 | opcode);
+        if (n < 126) {
+            f[1] = (byte) n;
+        } else if (n < 65536) {
+            f[1] = 126;
+            f[2] = (byte) (n >>> 8);
+            f[3] = (byte) n;
+        } else {
+            f[1] = 127;
+            for (int i = 0; i < 8; i++) f[2 + i] = (byte) ((long) n >>> (56 - 8 * i));
+        }
+        System.arraycopy(payload, 0, f, header, n);
+        return f;
+    }
+
+    static final class Connection {
+        private final Socket socket;
+        private final OutputStream out;
+        private final ReentrantLock writeLock = new ReentrantLock();
+        volatile boolean closed;
+        volatile Object attachment; // the relay's subscriber state
+
+        Connection(Socket socket, OutputStream out) {
+            this.socket = socket;
+            this.out = out;
+        }
+
+        String remote() { return String.valueOf(socket.getRemoteSocketAddress()); }
+
+        void send(int opcode, byte[] payload) throws IOException {
+            sendFrame(frame(opcode, payload));
+        }
+
+        /** Writes a frame built by {@link #textFrame}; the same bytes can go to every subscriber. */
+        void sendFrame(byte[] frame) throws IOException {
+            // A lock rather than synchronized: a virtual thread blocked in write() must not pin its carrier
+            writeLock.lock();
+            try {
+                if (closed) throw new EOFException("closed");
+                out.write(frame);
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        void close() {
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already gone
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ytchatbridge.client.bench;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * get_live_chat response bodies for the benchmarks, generated deterministically in the shape of recorded responses:
+ * tracking blobs, author photos, context menus and badges the parser has to skip are all present, so skipping costs
+ * what it costs in production. The raid fixture is one poll during a raid: hundreds of actions, mostly members,
+ * emoji-heavy runs, long and non-Latin text, legacy color codes, plus paid and membership items.
+ */
+public final class Fixtures {
+    public static final int NORMAL_MESSAGES = 25;
+    public static final int RAID_MESSAGES = 600;
+    /** Session start used for the backlog boundary; every generated message is newer. */
+    public static final long START_USEC = 1_760_000_000_000_000L;
+
+    private static final String[] WORDS = {
+        "pog", "lol", "gg", "hello", "from", "brazil", "first", "time", "here", "love", "the", "stream", "wow",
+        "clip", "that", "no", "way", "KEKW", "let's", "go", "raid", "hype", "สวัสดี", "ครับ", "こんにちは", "草", "안녕"
+    };
+    private static final String[] EMOJI = { "😂", "🔥", "❤️", "👀", "🎉" };
+
+    private Fixtures() {}
+
+    public static byte[] normal() { return response(NORMAL_MESSAGES, 0, 42L); }
+
+    /** {@link #RAID_MESSAGES} text messages plus paid and membership items that only count as actions. */
+    public static byte[] raid() { return response(RAID_MESSAGES, RAID_MESSAGES / 20, 7L); }
+
+    public static byte[] response(int textMessages, int otherItems, long seed) {
+        Random rnd = new Random(seed);
+        StringBuilder sb = new StringBuilder(2048 * (textMessages + otherItems) + 4096);
+        sb.append("{\"responseContext\":{\"serviceTrackingParams\":[{\"service\":\"CSI\",\"params\":[")
+          .append("{\"key\":\"c\",\"value\":\"WEB\"},{\"key\":\"cver\",\"value\":\"2.20251015.01.00\"},")
+          .append("{\"key\":\"yt_li\",\"value\":\"0\"},{\"key\":\"GetLiveChat_rid\",\"value\":\"0x").append(hex(rnd, 16)).append("\"}]},")
+          .append("{\"service\":\"GFEEDBACK\",\"params\":[{\"key\":\"logged_in\",\"value\":\"0\"}]}],")
+          .append("\"mainAppWebResponseContext\":{\"loggedOut\":true},")
+          .append("\"webResponseContextExtensionData\":{\"hasDecorated\":true}},");
+        sb.append("\"continuationContents\":{\"liveChatContinuation\":{\"continuations\":[{\"invalidationContinuationData\":{")
+          .append("\"invalidationId\":{\"objectSource\":1056,\"objectId\":\"").append(b64(rnd, 40))
+          .append("\",\"topic\":\"chat~fixture~1\",\"subscribeToGcmTopics\":true,\"protoCreationTimestampMs\":\"1760000000000\"},")
+          .append("\"timeoutMs\":5000,\"continuation\":\"").append(b64(rnd, 180)).append("\"}}],\"actions\":[");
+        long ts = START_USEC + 60_000_000L;
+        int total = textMessages + otherItems;
+        int others = 0;
+        for (int i = 0; i < total; i++) {
+            if (i > 0) sb.append(',');
+            ts += 1 + rnd.nextInt(200_000);
+            boolean other = others < otherItems && (i % Math.max(1, total / Math.max(1, otherItems))) == 1;
+            if (other) {
+                others++;
+                if ((others & 1) == 0) paid(sb, rnd, ts); else membership(sb, rnd, ts);
+            } else {
+                text(sb, rnd, ts, otherItems > 0);
+            }
+        }
+        sb.append("]}},\"trackingParams\":\"").append(b64(rnd, 28)).append("\"}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void text(StringBuilder sb, Random rnd, long ts, boolean raid) {
+        sb.append("{\"addChatItemAction\":{\"item\":{\"liveChatTextMessageRenderer\":{\"message\":{\"runs\":[");
+        int runs = 1 + rnd.nextInt(raid ? 6 : 3);
+        for (int r = 0; r < runs; r++) {
+            if (r > 0) sb.append(',');
+            if (r % 2 == 1 && rnd.nextInt(raid ? 2 : 4) == 0) emojiRun(sb, rnd);
+            else {
+                sb.append("{\"text\":\"");
+                int words = 1 + rnd.nextInt(raid && rnd.nextInt(10) == 0 ? 60 : 8);
+                for (int w = 0; w < words; w++) {
+                    if (w > 0) sb.append(' ');
+                    if (raid && rnd.nextInt(40) == 0) sb.append("§c"); // legacy color code the sanitizer strips
+                    sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+                }
+                if (rnd.nextInt(8) == 0) sb.append("\\n\\t\\\"");
+                sb.append("\"}");
+            }
+        }
+        sb.append("]},");
+        String name = author(sb, rnd, raid);
+        sb.append("\"id\":\"").append(b64(rnd, 56)).append("\",\"timestampUsec\":\"").append(ts).append("\",");
+        int role = new Random(name.hashCode() + 1).nextInt(100); // an author keeps their badge
+        String style = role < 1 ? "BADGE_STYLE_TYPE_OWNER" : role < 4 ? "BADGE_STYLE_TYPE_MODERATOR"
+                : role < (raid ? 50 : 15) ? "BADGE_STYLE_TYPE_MEMBER" : null;
+        if (style != null) {
+            sb.append("\"authorBadges\":[{\"metadataBadgeRenderer\":{\"icon\":{\"iconType\":\"")
+              .append(style.substring(17)).append("\"},\"style\":\"").append(style)
+              .append("\",\"tooltip\":\"Member (6 months)\",\"trackingParams\":\"").append(b64(rnd, 28))
+              .append("\",\"accessibilityData\":{\"label\":\"Member (6 months)\"}}}],");
+        }
+        channelId(sb, name); // after the badges, as YouTube orders text messages
+        sb.append("\"contextMenuAccessibility\":{\"accessibilityData\":{\"label\":\"Chat actions\"}},")
+          .append("\"trackingParams\":\"").append(b64(rnd, 40)).append("\"}},\"clientId\":\"").append(b64(rnd, 26)).append("\"}}");
+    }
+
+    private static void emojiRun(StringBuilder sb, Random rnd) {
+        String e = EMOJI[rnd.nextInt(EMOJI.length)];
+        sb.append("{\"emoji\":{\"emojiId\":\"").append(e).append("\",\"shortcuts\":[\":face-with-tears-of-joy:\",\":joy:\"],")
+          .append("\"searchTerms\":[\"face\",\"with\",\"tears\",\"of\",\"joy\"],\"image\":{\"thumbnails\":[{\"url\":\"")
+          .append("https://fonts.gstatic.com/s/e/notoemoji/15.1/1f602/72.png\"}],\"accessibility\":{\"accessibilityData\":")
+          .append("{\"label\":\"😂\"}}}}}");
+    }
+
+    /** Name, photo and context menu; returns the handle. */
+    private static String author(StringBuilder sb, Random rnd, boolean raid) {
+        String name = "@" + WORDS[rnd.nextInt(WORDS.length)] + rnd.nextInt(raid ? 5000 : 200);
+        sb.append("\"authorName\":{\"simpleText\":\"").append(name)
+          .append("\"},\"authorPhoto\":{\"thumbnails\":[{\"url\":\"https://yt4.ggpht.com/").append(b64(rnd, 80))
+          .append("=s32-c-k-c0x00ffffff-no-rj\",\"width\":32,\"height\":32},{\"url\":\"https://yt4.ggpht.com/")
+          .append(b64(rnd, 80)).append("=s64-c-k-c0x00ffffff-no-rj\",\"width\":64,\"height\":64}]},")
+          .append("\"contextMenuEndpoint\":{\"clickTrackingParams\":\"").append(b64(rnd, 40))
+          .append("\",\"commandMetadata\":{\"webCommandMetadata\":{\"ignoreNavigation\":true}},")
+          .append("\"liveChatItemContextMenuEndpoint\":{\"params\":\"").append(b64(rnd, 160)).append("\"}},");
+        return name;
+    }
+
+    /** One channel per handle, so regulars come back with the same ID. */
+    private static void channelId(StringBuilder sb, String name) {
+        sb.append("\"authorExternalChannelId\":\"UC").append(b64(new Random(name.hashCode()), 22)).append("\",");
+    }
+
+    private static void paid(StringBuilder sb, Random rnd, long ts) {
+        sb.append("{\"addChatItemAction\":{\"item\":{\"liveChatPaidMessageRenderer\":{\"id\":\"").append(b64(rnd, 56))
+          .append("\",\"timestampUsec\":\"").append(ts).append("\",");
+        channelId(sb, author(sb, rnd, true));
+        sb.append("\"purchaseAmountText\":{\"simpleText\":\"$5.00\"},\"message\":{\"runs\":[{\"text\":\"raid hype \"}]},")
+          .append("\"headerBackgroundColor\":4278239141,\"headerTextColor\":4278190080,\"bodyBackgroundColor\":4280150454,")
+          .append("\"bodyTextColor\":4278190080,\"authorNameTextColor\":2315255808,\"timestampColor\":2147483648,")
+          .append("\"trackingParams\":\"").append(b64(rnd, 40)).append("\"}},\"clientId\":\"").append(b64(rnd, 26)).append("\"}}");
+    }
+
+    private static void membership(StringBuilder sb, Random rnd, long ts) {
+        sb.append("{\"addChatItemAction\":{\"item\":{\"liveChatMembershipItemRenderer\":{\"id\":\"").append(b64(rnd, 56))
+          .append("\",\"timestampUsec\":\"").append(ts).append("\",");
+        channelId(sb, author(sb, rnd, true));
+        sb.append("\"headerSubtext\":{\"runs\":[{\"text\":\"Welcome to \"},{\"text\":\"the channel\"},{\"text\":\"!\"}]},")
+          .append("\"authorBadges\":[{\"liveChatAuthorBadgeRenderer\":{\"customThumbnail\":{\"thumbnails\":[{\"url\":\"")
+          .append("https://yt3.ggpht.com/").append(b64(rnd, 60)).append("=s16-c-k\"}]},\"tooltip\":\"New member\",")
+          .append("\"accessibility\":{\"accessibilityData\":{\"label\":\"New member\"}}}}]}}}}");
+    }
+
+    private static String hex(Random rnd, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) sb.append(Character.forDigit(rnd.nextInt(16), 16));
+        return sb.toString();
+    }
+
+    private static String b64(Random rnd, int n) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) sb.append(alphabet.charAt(rnd.nextInt(64)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.ytchatbridge.client.bench.Fixtures;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/** Opens the package-private parser to benchmarks of later pipeline stages. */
+public final class FixtureMessages {
+    private FixtureMessages() {}
+
+    public static List<ChatMessage> parse(byte[] body) {
+        LiveChatStreamParser parser = new LiveChatStreamParser();
+        try {
+            parser.parse(new ByteArrayInputStream(body), Fixtures.START_USEC);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return List.copyOf(parser.messages);
+    }
+
+    /** A parser reused across calls, as each provider does; the returned list is overwritten by the next call. */
+    public static final class Reused {
+        private final LiveChatStreamParser parser = new LiveChatStreamParser();
+
+        public List<ChatMessage> parse(byte[] body) throws IOException {
+            parser.parse(new ByteArrayInputStream(body), Fixtures.START_USEC);
+            return parser.messages;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.ytchatbridge.client.bench.Fixtures;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw get_live_chat body to ChatMessage list. Scores are per message (ops/s = messages/s; with -prof gc,
+ * gc.alloc.rate.norm = bytes per message), including the share of skipping everything around it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ParseBenchmark {
+    private static final String[] STYLES = {
+        "BADGE_STYLE_TYPE_MEMBER", "BADGE_STYLE_TYPE_VERIFIED", "BADGE_STYLE_TYPE_MODERATOR", "BADGE_STYLE_TYPE_OWNER"
+    };
+
+    private final LiveChatStreamParser parser = new LiveChatStreamParser();
+    private byte[] normal;
+    private byte[] raid;
+
+    @Setup
+    public void setup() {
+        normal = Fixtures.normal();
+        raid = Fixtures.raid();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.NORMAL_MESSAGES)
+    public void parseNormal(Blackhole bh) throws IOException {
+        parser.parse(new ByteArrayInputStream(normal), Fixtures.START_USEC);
+        bh.consume(parser.messages);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.RAID_MESSAGES)
+    public void parseRaid(Blackhole bh) throws IOException {
+        parser.parse(new ByteArrayInputStream(raid), Fixtures.START_USEC);
+        bh.consume(parser.messages);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(4)
+    public void roleFromBadges(Blackhole bh) {
+        for (String s : STYLES) {
+            ChatMessage.Role role = LiveChatStreamParser.roleFromStyle(s);
+            bh.consume(role);
+        }
+    }
+}
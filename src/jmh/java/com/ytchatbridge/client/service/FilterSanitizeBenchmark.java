@@ -0,0 +1,98 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.bench.Fixtures;
+import com.ytchatbridge.client.bridge.innertube.FixtureMessages;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/** The text checks BridgeServiceClient.onMessage runs per message, over every message of the raid fixture. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FilterSanitizeBenchmark {
+    /**
+     * Number of configured filter entries, mixed like a moderated channel's block list: mostly words and phrases,
+     * one in ten a regex (case-insensitive phrases, link shorteners, digit runs), one in a hundred a backreference
+     * that has to be matched on its own.
+     */
+    @Param({"0", "10", "100", "1000"})
+    public int filterCount;
+
+    private ChatMessage[] messages;
+    private FilterEngine filters;
+    private Pattern[] perEntry; // what isFiltered() looped over before FilterEngine
+
+    @Setup
+    public void setup() {
+        messages = FixtureMessages.parse(Fixtures.raid()).toArray(new ChatMessage[0]);
+        List<String> list = filterList(filterCount);
+        filters = FilterEngine.compile(list);
+        perEntry = new Pattern[list.size()];
+        for (int i = 0; i < perEntry.length; i++) perEntry[i] = Pattern.compile(list.get(i));
+    }
+
+    static List<String> filterList(int n) {
+        String[] words = { "freevbucks", "cheap subs", "follow4follow", "spam", "scam link", "giveaway bot", "ฟรีเครดิต", "無料" };
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (i % 100 == 99) list.add("(\\w)\\1{" + (8 + i % 5) + ",}" + i);
+            else if (i % 10 == 9) {
+                list.add(switch ((i / 10) % 3) {
+                    case 0 -> "(?i)buy\\s+followers\\s*" + i;
+                    case 1 -> "https?://(?:bit\\.ly|tinyurl\\.com)/x" + i;
+                    default -> "\\bwin\\s+\\d{3,}\\s*robux" + i;
+                });
+            } else list.add(words[i % words.length] + " " + i);
+        }
+        return list;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.RAID_MESSAGES)
+    public void filter(Blackhole bh) {
+        for (ChatMessage m : messages) bh.consume(filters.matches(m.message));
+    }
+
+    /** Baseline: every entry's pattern run on its own, as before the engine. */
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.RAID_MESSAGES)
+    public void filterPerEntry(Blackhole bh) {
+        for (ChatMessage m : messages) {
+            boolean hit = false;
+            for (Pattern p : perEntry) {
+                if (p.matcher(m.message).find()) { hit = true; break; }
+            }
+            bh.consume(hit);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.RAID_MESSAGES)
+    public void sanitize(Blackhole bh) {
+        for (ChatMessage m : messages) bh.consume(MessageSanitizer.sanitize(m.message, 256));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.RAID_MESSAGES)
+    public void filterAndSanitize(Blackhole bh) {
+        for (ChatMessage m : messages) {
+            if (filters.matches(m.message)) continue;
+            bh.consume(MessageSanitizer.sanitize(m.message, 256));
+        }
+    }
+}
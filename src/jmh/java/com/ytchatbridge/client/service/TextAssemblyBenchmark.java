@@ -0,0 +1,69 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.bench.Fixtures;
+import com.ytchatbridge.client.bridge.innertube.FixtureMessages;
+import com.ytchatbridge.client.config.ConfigManager;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text assembly on its own, and the whole path from raw body to HUD-ready Text (parse, filter, sanitize, assemble)
+ * as onMessage runs it, minus throttling and queueing. Scores are per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TextAssemblyBenchmark {
+    private final FixtureMessages.Reused parser = new FixtureMessages.Reused();
+    private ChatMessage[] messages;
+    private String[] bodies;
+    private RenderProfile profile;
+    private FilterEngine filters;
+    private byte[] raid;
+
+    @Setup
+    public void setup() {
+        SharedConstants.createGameVersion();
+        Bootstrap.initialize();
+        ConfigManager.Data cfg = new ConfigManager.Data();
+        cfg.prefix = "&c[&fYT&c]";
+        profile = RenderProfile.from(cfg);
+        filters = FilterEngine.compile(List.of("spamword", "(?i)buy\\s+followers"));
+        raid = Fixtures.raid();
+        messages = FixtureMessages.parse(raid).toArray(new ChatMessage[0]);
+        bodies = new String[messages.length];
+        for (int i = 0; i < messages.length; i++) bodies[i] = MessageSanitizer.sanitize(messages[i].message, 256);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.RAID_MESSAGES)
+    public void assemble(Blackhole bh) {
+        for (int i = 0; i < messages.length; i++) bh.consume(profile.line("fixture", messages[i], bodies[i]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.RAID_MESSAGES)
+    public void rawToText(Blackhole bh) throws IOException {
+        for (ChatMessage m : parser.parse(raid)) {
+            if (filters.matches(m.message)) continue;
+            String body = MessageSanitizer.sanitize(m.message, 256);
+            if (!body.isEmpty()) bh.consume(profile.line("fixture", m, body));
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.ytchatbridge.client;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.loader.api.FabricLoader;
 
 import com.ytchatbridge.client.commands.YTClientCommands;
@@ -19,6 +21,15 @@ public class YTChatBridgeClient implements ClientModInitializer {
         // Initialize bridge service (client only)
         BridgeServiceClient.get();
 
+        // Deliver queued chat lines on the client thread
+        ClientTickEvents.END_CLIENT_TICK.register(client -> BridgeServiceClient.get().drainToHud(client));
+
+        // Finish writing chat logs and any pending config save before the JVM exits
+        ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+            BridgeServiceClient.get().shutdown();
+            ConfigManager.get().flush(2000);
+        });
+
         // Register client commands
         ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> {
             YTClientCommands.register(dispatcher);
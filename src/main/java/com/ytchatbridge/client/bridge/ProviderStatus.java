@@ -1,5 +1,7 @@
 package com.ytchatbridge.client.bridge;
 
+import com.ytchatbridge.client.metrics.ProviderMetrics;
+
 public final class ProviderStatus {
     public final String providerName;
     public final boolean running;
@@ -7,13 +9,16 @@ public final class ProviderStatus {
     public final int msgsPerMin;
     public final long lastLagMs;
     public final String lastError;
+    public final ProviderMetrics metrics; // live view, not a copy
 
-    public ProviderStatus(String providerName, boolean running, String channelTitle, int msgsPerMin, long lastLagMs, String lastError) {
+    public ProviderStatus(String providerName, boolean running, String channelTitle, int msgsPerMin, long lastLagMs, String lastError,
+                          ProviderMetrics metrics) {
         this.providerName = providerName;
         this.running = running;
         this.channelTitle = channelTitle;
         this.msgsPerMin = msgsPerMin;
         this.lastLagMs = lastLagMs;
         this.lastError = lastError;
+        this.metrics = metrics;
     }
 }
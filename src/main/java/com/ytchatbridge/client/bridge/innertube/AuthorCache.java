@@ -0,0 +1,125 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Recently seen chat authors for one {@link LiveChatStreamParser}, keyed by {@code authorExternalChannelId}, so
+ * regulars resolve to one shared name String and a known role. Bounded by CLOCK eviction: a use sets the entry's
+ * reference bit, and the hand clears bits until it finds an entry that was not used since its last pass.
+ * <p>
+ * YouTube sends the name and badges before the channel ID, so the parser finds the entry by handle
+ * ({@link #byHandle}) and skips the badges if it is fresh. The skip only counts once the channel ID read afterwards
+ * names the same entry; otherwise the message does not get that entry's role. Handles are unique per channel, plain
+ * display names are not, so only names starting with '@' are indexed. Roles are re-read from the badges every
+ * {@link #VERIFY_MS} per author so promotions show up.
+ * <p>
+ * {@link #hits} counts messages whose badges or name were skipped and confirmed by the channel ID.
+ * Not thread-safe; the parser is confined to its provider's poll chain.
+ */
+final class AuthorCache {
+    static final int DEFAULT_CAPACITY = 4096;
+    static final long VERIFY_MS = 60_000;
+
+    static final class Author {
+        final String channelId;
+        String name;
+        ChatMessage.Role role;
+        long verifiedMs; // when the role was last read from badges; 0 = never
+        boolean referenced;
+        boolean handleShared; // another channel was seen with this handle: never guessed from it again
+
+        Author(String channelId) { this.channelId = channelId; }
+
+        boolean fresh(long now) { return verifiedMs != 0 && now - verifiedMs < VERIFY_MS; }
+    }
+
+    private final Author[] slots;
+    private final Map<String, Author> byId;
+    private final Map<String, Author> byHandle;
+    private int size;
+    private int hand;
+    long lookups;
+    long hits;
+
+    AuthorCache(int capacity) {
+        slots = new Author[capacity];
+        byId = new HashMap<>(capacity * 2);
+        byHandle = new HashMap<>(capacity * 2);
+    }
+
+    int size() { return size; }
+
+    Author byId(String channelId) { return byId.get(channelId); }
+
+    /** The author last seen with this handle; a guess until the message's channel ID confirms it. */
+    Author byHandle(String name) {
+        Author a = isHandle(name) ? byHandle.get(name) : null;
+        return a == null || a.handleShared ? null : a;
+    }
+
+    /**
+     * Records one message's author once its renderer has been read, and returns the entry whose name and role the
+     * message should carry.
+     *
+     * @param a       {@link #byId} for this channel ID, looked up by the parser when it read the ID; null if unknown
+     * @param name    the name as read, or null if it was skipped because {@code a} was fresh
+     * @param skipped the fresh entry the badges were skipped for, or null if they were read
+     * @param role    the role from the badges (USER if there were none); unused when {@code skipped} is set
+     */
+    Author confirm(String channelId, Author a, String name, Author skipped, ChatMessage.Role role, long now) {
+        lookups++;
+        boolean known = a != null;
+        if (!known) {
+            a = new Author(channelId);
+            a.name = name != null ? name : "";
+            a.role = ChatMessage.Role.USER;
+            insert(a);
+        } else {
+            a.referenced = true;
+            if (name != null && !name.equals(a.name)) rename(a, name);
+            else if (isHandle(a.name)) byHandle.put(a.name, a);
+        }
+        if (skipped == null) {
+            a.role = role;
+            a.verifiedMs = now;
+        } else if (skipped != a) {
+            // The handle belonged to someone else when it was cached. This author's badges went unread, so the
+            // message keeps this author's own last known role (USER if new), and neither entry is guessed again
+            a.verifiedMs = 0;
+            a.handleShared = true;
+            skipped.handleShared = true;
+        }
+        if (known && (skipped == a || name == null)) hits++;
+        return a;
+    }
+
+    private void rename(Author a, String name) {
+        if (isHandle(a.name)) byHandle.remove(a.name, a);
+        a.name = name;
+        a.handleShared = false;
+        if (isHandle(name)) byHandle.put(name, a);
+    }
+
+    private static boolean isHandle(String name) { return name != null && name.length() > 1 && name.charAt(0) == '@'; }
+
+    private void insert(Author a) {
+        if (size < slots.length) {
+            slots[size++] = a;
+        } else {
+            while (slots[hand].referenced) {
+                slots[hand].referenced = false;
+                hand = (hand + 1) % slots.length;
+            }
+            Author victim = slots[hand];
+            byId.remove(victim.channelId);
+            if (isHandle(victim.name)) byHandle.remove(victim.name, victim);
+            slots[hand] = a;
+            hand = (hand + 1) % slots.length;
+        }
+        byId.put(a.channelId, a);
+        if (isHandle(a.name)) byHandle.put(a.name, a);
+    }
+}
@@ -0,0 +1,98 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * INNERTUBE_API_KEY and INNERTUBE_CONTEXT from the last watch page, kept in one small JSON file so a session can
+ * start with a single {@code youtubei/v1/next} call instead of downloading the page. Entries expire after
+ * {@link #TTL_MS} (the context carries the web client version), are checked for shape on load, and are dropped as
+ * soon as YouTube rejects a request made with them. Shared by every provider of a client.
+ */
+public final class BootstrapCache {
+    static final long TTL_MS = 12 * 60 * 60 * 1000L;
+    private static final Pattern API_KEY = Pattern.compile("[A-Za-z0-9_-]{20,64}");
+
+    record Entry(String apiKey, JsonObject context, long savedAtMs) {}
+
+    private final Path file;
+    private Entry entry;
+    private boolean loaded;
+
+    public BootstrapCache(Path file) {
+        this.file = file;
+    }
+
+    /** A fresh entry, or null. */
+    synchronized Entry get(long nowMs) {
+        if (!loaded) {
+            loaded = true;
+            entry = load();
+        }
+        if (entry != null && nowMs - entry.savedAtMs() >= TTL_MS) entry = null;
+        return entry;
+    }
+
+    synchronized void put(String apiKey, JsonObject context, long nowMs) {
+        if (!valid(apiKey, context)) return;
+        entry = new Entry(apiKey, context, nowMs);
+        loaded = true;
+        JsonObject o = new JsonObject();
+        o.addProperty("apiKey", apiKey);
+        o.add("context", context);
+        o.addProperty("savedAt", nowMs);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(tmp, o.toString(), StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); // still cached in memory for this run
+        }
+    }
+
+    /** Forgets the entry after YouTube rejected it; the next bootstrap fetches the watch page. */
+    synchronized void invalidate() {
+        entry = null;
+        loaded = true;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Entry load() {
+        if (Files.notExists(file)) return null;
+        try {
+            JsonObject o = JsonParser.parseString(Files.readString(file, StandardCharsets.UTF_8)).getAsJsonObject();
+            String apiKey = o.get("apiKey").getAsString();
+            JsonObject context = o.getAsJsonObject("context");
+            long savedAt = o.get("savedAt").getAsLong();
+            return valid(apiKey, context) ? new Entry(apiKey, context, savedAt) : null;
+        } catch (IOException | JsonParseException | IllegalStateException | NullPointerException | ClassCastException e) {
+            return null; // unreadable or from an older format: fetch the page once and overwrite it
+        }
+    }
+
+    private static boolean valid(String apiKey, JsonObject context) {
+        if (apiKey == null || !API_KEY.matcher(apiKey).matches() || context == null) return false;
+        JsonElement client = context.get("client");
+        return client != null && client.isJsonObject()
+                && client.getAsJsonObject().has("clientName") && client.getAsJsonObject().has("clientVersion");
+    }
+}
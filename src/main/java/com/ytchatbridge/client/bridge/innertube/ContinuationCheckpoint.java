@@ -0,0 +1,139 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Where a session is in its chat: video ID, current continuation, the newest delivered message time and the
+ * {@link RecentIds#hash hashed} IDs delivered at exactly that time, kept in a small memory-mapped file so it survives
+ * a crash or stop and {@code /ytchat resume} can fetch only the gap. The IDs let the resumed session keep other
+ * messages stamped with the same microsecond and drop only the ones already shown.
+ * <p>
+ * A write is a copy into the mapping (no syscall, no fsync), so the provider updates it after every poll. The file
+ * holds two {@link #SLOT_BYTES} slots written alternately, each with its own length and CRC32, so a write torn by a
+ * crash only loses that update; {@link #read} takes the newest slot that checks out.
+ */
+public final class ContinuationCheckpoint implements Closeable {
+    static final int SLOT_BYTES = 4096;
+    private static final int MAGIC = 0x5954434B; // "YTCK"
+    private static final int VERSION = 2; // 2: IDs at lastTsUsec
+    private static final int HEADER_BYTES = 16; // magic, version, payload length, crc
+    private static final int MAX_PAYLOAD = SLOT_BYTES - HEADER_BYTES;
+
+    public record State(String videoId, String continuation, long lastTsUsec, long[] lastIds, long savedAtMs) {}
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD);
+    private final CRC32 crc = new CRC32();
+    private int nextSlot;
+    private boolean closed;
+
+    private ContinuationCheckpoint(FileChannel channel, MappedByteBuffer map, int nextSlot) {
+        this.channel = channel;
+        this.map = map;
+        this.nextSlot = nextSlot;
+    }
+
+    public static ContinuationCheckpoint open(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_WRITE, 0, 2L * SLOT_BYTES);
+            State a = readSlot(map, 0), b = readSlot(map, 1);
+            // Overwrite the older slot first, so the newest good state survives a torn write
+            int next = a == null ? 0 : b == null ? 1 : a.savedAtMs() <= b.savedAtMs() ? 0 : 1;
+            return new ContinuationCheckpoint(ch, map, next);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Records the session position, with the first {@code idCount} of {@code lastIds}; skipped if the continuation
+     * does not fit a slot.
+     */
+    synchronized void write(String videoId, String continuation, long lastTsUsec, long[] lastIds, int idCount, long nowMs) {
+        if (closed) return;
+        byte[] vid = videoId.getBytes(StandardCharsets.UTF_8);
+        byte[] cont = continuation.getBytes(StandardCharsets.UTF_8);
+        if (16 + 2 + vid.length + 4 + cont.length + 1 + 8 * idCount > MAX_PAYLOAD || vid.length > Short.MAX_VALUE || idCount > 127) return;
+        payload.clear();
+        payload.putLong(nowMs).putLong(lastTsUsec).putShort((short) vid.length).put(vid).putInt(cont.length).put(cont);
+        payload.put((byte) idCount);
+        for (int i = 0; i < idCount; i++) payload.putLong(lastIds[i]);
+        payload.flip();
+        crc.reset();
+        crc.update(payload.array(), 0, payload.limit());
+        int base = nextSlot * SLOT_BYTES;
+        map.put(base + HEADER_BYTES, payload.array(), 0, payload.limit());
+        map.putInt(base + 8, payload.limit());
+        map.putInt(base + 12, (int) crc.getValue());
+        map.putInt(base + 4, VERSION);
+        map.putInt(base, MAGIC);
+        nextSlot ^= 1;
+    }
+
+    /** Newest intact state in {@code file}, or null if there is none. */
+    public static State read(Path file) throws IOException {
+        if (Files.notExists(file)) return null;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < 2L * SLOT_BYTES) return null;
+            ByteBuffer buf = ByteBuffer.allocate(2 * SLOT_BYTES);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) { /* fill */ }
+            State a = readSlot(buf, 0), b = readSlot(buf, 1);
+            if (a == null) return b;
+            if (b == null) return a;
+            return a.savedAtMs() >= b.savedAtMs() ? a : b;
+        }
+    }
+
+    private static State readSlot(ByteBuffer buf, int slot) {
+        int base = slot * SLOT_BYTES;
+        if (buf.getInt(base) != MAGIC || buf.getInt(base + 4) != VERSION) return null;
+        int len = buf.getInt(base + 8);
+        if (len < 23 || len > MAX_PAYLOAD) return null;
+        byte[] p = new byte[len];
+        buf.get(base + HEADER_BYTES, p);
+        CRC32 c = new CRC32();
+        c.update(p);
+        if ((int) c.getValue() != buf.getInt(base + 12)) return null;
+        ByteBuffer in = ByteBuffer.wrap(p);
+        long savedAt = in.getLong();
+        long lastTs = in.getLong();
+        int vidLen = in.getShort();
+        if (vidLen < 0 || vidLen > in.remaining() - 5) return null;
+        String vid = new String(p, in.position(), vidLen, StandardCharsets.UTF_8);
+        in.position(in.position() + vidLen);
+        int contLen = in.getInt();
+        if (contLen < 0 || contLen > in.remaining() - 1) return null;
+        String cont = new String(p, in.position(), contLen, StandardCharsets.UTF_8);
+        in.position(in.position() + contLen);
+        int idCount = in.get();
+        if (idCount < 0 || idCount * 8 != in.remaining()) return null;
+        long[] ids = new long[idCount];
+        for (int i = 0; i < ids.length; i++) ids[i] = in.getLong();
+        return new State(vid, cont, lastTs, ids, savedAt);
+    }
+
+    /** Stops further writes; the mapping itself is released by the GC, and the OS writes its pages back. */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
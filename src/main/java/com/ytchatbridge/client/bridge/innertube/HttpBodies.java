@@ -0,0 +1,87 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compressed response bodies for the watch page and polls: requests advertise {@link #ACCEPT_ENCODING}, and
+ * {@link #decode} wraps the body so it is inflated as the consumer reads it, without buffering the whole response.
+ */
+final class HttpBodies {
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final int INFLATE_BUFFER = 8 * 1024;
+
+    private HttpBodies() {}
+
+    /** Decoded view of {@code raw} according to the response's Content-Encoding; closes {@code raw} if that fails. */
+    static InputStream decode(HttpResponse<?> resp, InputStream raw) throws IOException {
+        String enc = resp.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        try {
+            return switch (enc) {
+                case "", "identity" -> raw;
+                case "gzip", "x-gzip" -> new GZIPInputStream(raw, INFLATE_BUFFER);
+                case "deflate" -> inflate(raw);
+                default -> throw new IOException("Unsupported Content-Encoding: " + enc);
+            };
+        } catch (IOException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    /** "deflate" should be zlib-wrapped (RFC 9110), but some servers send a raw stream; the first two bytes tell. */
+    private static InputStream inflate(InputStream raw) throws IOException {
+        PushbackInputStream in = new PushbackInputStream(raw, 2);
+        int b0 = in.read();
+        int b1 = b0 >= 0 ? in.read() : -1;
+        if (b1 >= 0) in.unread(b1);
+        if (b0 >= 0) in.unread(b0);
+        boolean zlib = b1 >= 0 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(in, inflater, INFLATE_BUFFER) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end(); // not ended by InflaterInputStream when we supply it
+                }
+            }
+        };
+    }
+
+    /** Counts bytes read through it; single reader. */
+    static final class Counting extends FilterInputStream {
+        long count;
+
+        Counting(InputStream in) { super(in); }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int n) throws IOException {
+            int got = super.read(b, off, n);
+            if (got > 0) count += got;
+            return got;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
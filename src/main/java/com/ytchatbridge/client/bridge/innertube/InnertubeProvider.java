@@ -1,47 +1,94 @@
 package com.ytchatbridge.client.bridge.innertube;
 
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
 import com.ytchatbridge.client.bridge.ChatProvider;
 import com.ytchatbridge.client.bridge.ProviderStatus;
+import com.ytchatbridge.client.metrics.ProviderMetrics;
 import com.ytchatbridge.client.model.ChatMessage;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.http.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class InnertubeProvider implements ChatProvider {
-    private final ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "YTChat-Innertube");
+    // Shared by every session for timers only: it hands each due poll to SHARED_WORK and never blocks, so one
+    // thread serves any number of streams.
+    private static final ScheduledThreadPoolExecutor SHARED_EXEC = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "YTChat-Innertube-Timer");
         t.setDaemon(true);
         return t;
     });
-    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(15)).build();
+    static { SHARED_EXEC.setRemoveOnCancelPolicy(true); } // stopped sessions must not leave polls queued
+    // The blocking part (send, reading the body while parsing, the watch page) runs on a virtual thread per task, so
+    // a stalled long poll or slow page holds up only its own stream
+    private static final ExecutorService SHARED_WORK = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("YTChat-Innertube-", 1).factory());
+    // HTTP/2 multiplexes every session's polls over one connection to youtube.com
+    private static final HttpClient SHARED_CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(15))
+            .build();
+
+    private final ScheduledExecutorService exec;
+    private final Executor work;
+    private final HttpClient client;
+    private final LiveChatStreamParser parser = new LiveChatStreamParser();
+    private final PollScheduler scheduler = new PollScheduler();
+    private final BootstrapCache bootstrap;
     private volatile Listener listener;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private volatile String continuation = null;
     private volatile String apiKey = null;
     private volatile JsonObject context = null;
+    private volatile PollRequestTemplate template = null;
     private volatile String channelTitle = "";
     private volatile String lastError = "";
     private volatile long lastLagMs = 0;
-    private volatile int msgsInWindow = 0;
-    private volatile long windowStart = System.currentTimeMillis();
+    private final ProviderMetrics metrics = new ProviderMetrics();
     private volatile int consecutiveErrors = 0;
     private volatile String lastVideoId = ""; // keep for potential re-bootstrap
     private volatile long startUsec = 0L; // timestampUsec boundary to filter backlog externally
     private volatile int emptyCycles = 0; // consecutive polls with no continuation+no actions
     private static final int EMPTY_CYCLE_END_THRESHOLD = 3;
+    private volatile ScheduledFuture<?> pending;
+    private volatile ResponseRecorder recorder; // optional tee of raw poll responses
+    private volatile Path checkpointFile; // optional, where the position is checkpointed after each poll
+    private volatile ContinuationCheckpoint checkpoint;
+    private volatile ContinuationCheckpoint.State resume; // optional position to continue from
+    private boolean resuming; // polling the checkpoint's continuation, not yet answered; poll chain only
+    private long newestUsec; // newest delivered message time; poll chain only
+    private final long[] newestIds = new long[LiveChatStreamParser.NEWEST_IDS]; // hashed IDs delivered at newestUsec
+    private int newestIdCount;
+
+    public InnertubeProvider() { this(null); }
+
+    /** @param bootstrap cache shared by the client's sessions, or null to always read the watch page */
+    public InnertubeProvider(BootstrapCache bootstrap) { this(SHARED_CLIENT, SHARED_EXEC, bootstrap); }
 
-    private static final Pattern API_KEY_RE = Pattern.compile("\\\"INNERTUBE_API_KEY\\\":\\\"(.*?)\\\"");
-    // Old CTX regex caused truncated nested JSON (balanced braces not handled) leading to EOF parse errors.
-    // Keep pattern constant commented for reference.
-    // private static final Pattern CTX_RE = Pattern.compile("\\\"INNERTUBE_CONTEXT\\\":(\\{.*?\\})[,}]");
-    private static final Pattern CONT_RE = Pattern.compile("\\\"continuation\\\":\\\"(.*?)\\\"");
+    public InnertubeProvider(HttpClient client, ScheduledExecutorService exec) { this(client, exec, null); }
+
+    public InnertubeProvider(HttpClient client, ScheduledExecutorService exec, BootstrapCache bootstrap) {
+        this(client, exec, SHARED_WORK, bootstrap);
+    }
+
+    /**
+     * @param exec timers only; tasks scheduled on it just hand off to {@code work}
+     * @param work runs the blocking fetches and parses, one task per stream at a time
+     */
+    public InnertubeProvider(HttpClient client, ScheduledExecutorService exec, Executor work, BootstrapCache bootstrap) {
+        this.client = client;
+        this.exec = exec;
+        this.work = work;
+        this.bootstrap = bootstrap;
+    }
 
     @Override
     public void start(String videoIdOrUrl) {
@@ -49,140 +96,262 @@ public class InnertubeProvider implements ChatProvider {
         lastError = "";
         String vid = normalizeVideoId(videoIdOrUrl);
     lastVideoId = vid;
-    startUsec = System.currentTimeMillis() * 1000L;
-        exec.execute(() -> initialFetch(vid));
+        ContinuationCheckpoint.State from = resume != null && resume.videoId().equals(vid) ? resume : null;
+        resume = null;
+        // A resumed session wants everything after the checkpoint, not just what follows this call
+        startUsec = from != null ? from.lastTsUsec() : System.currentTimeMillis() * 1000L;
+        work.execute(() -> {
+            beginRecording(vid);
+            openCheckpoint();
+            scheduler.reset();
+            newestUsec = startUsec;
+            newestIdCount = 0;
+            if (from != null) {
+                parser.resumeAfter(from.lastTsUsec(), from.lastIds());
+                newestIdCount = Math.min(from.lastIds().length, newestIds.length);
+                System.arraycopy(from.lastIds(), 0, newestIds, 0, newestIdCount);
+            } else parser.afterUsec = 0L;
+            if (!initialFetch(vid)) return;
+            if (from != null) {
+                // The key and context are fresh; only the chat position comes from the checkpoint
+                continuation = from.continuation();
+                resuming = true;
+                info("Resuming chat from checkpoint");
+            }
+            schedulePoll(0);
+        });
     }
 
+    /** Saves every poll response to {@code recorder}; set before {@link #start}. */
+    public void setRecorder(ResponseRecorder recorder) { this.recorder = recorder; }
+
+    /** Checkpoints the chat position to {@code file} after every poll; set before {@link #start}. */
+    public void setCheckpoint(Path file) { this.checkpointFile = file; }
+
+    /**
+     * Continues from a checkpoint of the same video instead of the live edge: messages between it and now are
+     * fetched, those delivered before it are not. Set before {@link #start}. If YouTube no longer accepts the
+     * checkpoint's continuation, the session starts from the current page and only its recent backlog is recovered.
+     */
+    public void resumeFrom(ContinuationCheckpoint.State state) { this.resume = state; }
+
     @Override
     public void stop() {
         running.set(false);
+        ScheduledFuture<?> f = pending;
+        if (f != null) f.cancel(false);
         continuation = null;
         apiKey = null;
         context = null;
+        template = null;
     emptyCycles = 0;
+        ResponseRecorder rec = recorder;
+        if (rec != null) rec.close();
+        ContinuationCheckpoint cp = checkpoint;
+        if (cp != null) cp.close(); // the file stays for /ytchat resume
     }
 
     @Override
     public ProviderStatus status() {
-        int mpm;
-        long now = System.currentTimeMillis();
-        synchronized (this) {
-            if (now - windowStart > 60_000) { windowStart = now; msgsInWindow = 0; }
-            mpm = msgsInWindow;
-        }
-        return new ProviderStatus("innertube", running.get(), channelTitle, mpm, lastLagMs, lastError);
+        return new ProviderStatus("innertube", running.get(), channelTitle, (int) metrics.received.perMinute(), lastLagMs, lastError, metrics);
     }
 
     @Override
     public void setListener(Listener listener) { this.listener = listener; }
 
-    private void initialFetch(String videoId) {
+    /**
+     * Sets up polling: from the cached key and context when fresh (one youtubei/v1/next call for the chat
+     * continuation), otherwise from the watch page. False, after reporting why, if neither worked.
+     */
+    private boolean initialFetch(String videoId) {
+        BootstrapCache.Entry cached = bootstrap != null ? bootstrap.get(System.currentTimeMillis()) : null;
+        if (cached != null && resumeFromCache(videoId, cached)) return true;
         try {
             String watchUrl = "https://www.youtube.com/watch?v=" + videoId + "&bp=wgUCEAE%3D";
             HttpRequest req = HttpRequest.newBuilder(URI.create(watchUrl))
                     .GET()
                     .timeout(Duration.ofSeconds(15))
                     .header("User-Agent", ua())
+                    .header("Accept-Encoding", HttpBodies.ACCEPT_ENCODING)
                     .build();
             long t0 = System.currentTimeMillis();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<InputStream> resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            WatchPageScanner scan = new WatchPageScanner();
+            // Closing the stream early cancels the rest of the download
+            try (InputStream in = HttpBodies.decode(resp, resp.body())) {
+                byte[] buf = new byte[16 * 1024];
+                int n;
+                while (!scan.complete() && (n = in.read(buf)) >= 0) scan.feed(buf, 0, n);
+            }
             lastLagMs = System.currentTimeMillis() - t0;
-            String html = resp.body();
 
-            Matcher mKey = API_KEY_RE.matcher(html);
-            Matcher mCont = CONT_RE.matcher(html);
-            if (!mKey.find() || !mCont.find()) {
+            if (scan.apiKey() == null || scan.continuation() == null) {
                 fail("Failed to parse watch page for apiKey/continuation" );
-                return;
+                return false;
             }
-            apiKey = mKey.group(1);
-            continuation = mCont.group(1);
+            apiKey = scan.apiKey();
+            continuation = scan.continuation();
 
-            String ctxJson = extractInnertubeContext(html);
+            String ctxJson = scan.context();
             if (ctxJson == null) {
                 fail("Failed to locate INNERTUBE_CONTEXT JSON");
-                return;
+                return false;
             }
             try {
                 context = JsonParser.parseString(unescapeJson(ctxJson)).getAsJsonObject();
             } catch (JsonParseException ex) {
                 fail("Context parse error: " + shortMsg(ex.getMessage()));
-                return;
+                return false;
             }
+            template = new PollRequestTemplate(apiKey, context, ua());
+            if (bootstrap != null) bootstrap.put(apiKey, context, System.currentTimeMillis());
             info("Server Started");
-            schedulePoll(0);
+            return true;
         } catch (Exception e) {
             fail(e.getMessage());
+            return false;
         }
     }
 
-    private void schedulePoll(long delayMs) {
-        if (!running.get()) return;
-        exec.schedule(this::pollOnce, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
-    }
-
-    private void pollOnce() {
-        if (!running.get() || apiKey == null || continuation == null || context == null) return;
+    /**
+     * Looks up the chat continuation with youtubei/v1/next. Its response is the page's ytInitialData, read as JSON
+     * rather than scanned for markers since it is pretty-printed unless asked not to be. False to fall back to the page.
+     */
+    private boolean resumeFromCache(String videoId, BootstrapCache.Entry cached) {
         try {
-            JsonObject payload = new JsonObject();
-            payload.add("context", context.deepCopy());
-            payload.addProperty("continuation", continuation);
-
-            HttpRequest req = HttpRequest.newBuilder(URI.create("https://www.youtube.com/youtubei/v1/live_chat/get_live_chat?key=" + apiKey))
+            JsonObject body = new JsonObject();
+            body.add("context", cached.context());
+            body.addProperty("videoId", videoId);
+            HttpRequest req = HttpRequest.newBuilder(URI.create("https://www.youtube.com/youtubei/v1/next?prettyPrint=false&key=" + cached.apiKey()))
                     .timeout(Duration.ofSeconds(15))
                     .header("Content-Type", "application/json")
                     .header("User-Agent", ua())
-                    .POST(HttpRequest.BodyPublishers.ofString(payload.toString(), StandardCharsets.UTF_8))
+                    .header("Accept-Encoding", HttpBodies.ACCEPT_ENCODING)
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
                     .build();
             long t0 = System.currentTimeMillis();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<InputStream> resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            if (rejected(resp.statusCode())) {
+                resp.body().close();
+                bootstrap.invalidate();
+                return false;
+            }
+            if (resp.statusCode() >= 400) {
+                resp.body().close();
+                return false;
+            }
+            String found;
+            try (JsonReader r = new JsonReader(new InputStreamReader(HttpBodies.decode(resp, resp.body()), StandardCharsets.UTF_8))) {
+                found = NextResponse.chatContinuation(r);
+            }
+            if (found == null) return false;
             lastLagMs = System.currentTimeMillis() - t0;
-            String bodyStr = resp.body();
-            JsonObject body;
-            try {
-                body = JsonParser.parseString(bodyStr).getAsJsonObject();
+            apiKey = cached.apiKey();
+            context = cached.context();
+            continuation = found;
+            template = new PollRequestTemplate(apiKey, context, ua());
+            info("Server Started");
+            return true;
+        } catch (Exception e) {
+            return false; // the watch page reports the real problem, if there is one
+        }
+    }
+
+    /** Status codes meaning the key, context or continuation is no longer accepted. */
+    private static boolean rejected(int status) {
+        return status == 400 || status == 401 || status == 403 || status == 404;
+    }
+
+    /** Bootstraps again after repeated parse errors, backing off while that keeps failing. */
+    private void rebootstrap() {
+        if (!running.get()) return;
+        if (initialFetch(lastVideoId)) schedulePoll(0);
+        else schedule(this::rebootstrap, scheduler.onError(System.currentTimeMillis()));
+    }
+
+    private void schedulePoll(long delayMs) { schedule(this::pollOnce, delayMs); }
+
+    private void schedule(Runnable task, long delayMs) {
+        if (!running.get()) return;
+        pending = exec.schedule(() -> work.execute(task), Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+    }
+
+    private void pollOnce() {
+        if (!running.get() || template == null || continuation == null) return;
+        try {
+            HttpRequest req = template.request(continuation);
+            long t0 = System.nanoTime();
+            metrics.polls.incrementAndGet();
+            scheduler.onRequest(System.currentTimeMillis());
+            HttpResponse<InputStream> resp = client.send(req, HttpResponse.BodyHandlers.ofInputStream());
+            long t1 = System.nanoTime();
+            long arrivalMs = System.currentTimeMillis();
+            metrics.pollRtt.recordNanos(t1 - t0);
+            if (rejected(resp.statusCode())) {
+                // Stale key, context or continuation: drop the cached bootstrap and start over from the page
+                resp.body().close();
+                metrics.errors.incrementAndGet();
+                lastError = "HTTP " + resp.statusCode();
+                if (resuming) {
+                    // Only the checkpoint's continuation expired; the key and context were just accepted
+                    resuming = false;
+                    info("Checkpoint too old to resume from; continuing from the live chat");
+                } else if (bootstrap != null) {
+                    bootstrap.invalidate();
+                }
+                consecutiveErrors = 0;
+                schedule(this::rebootstrap, scheduler.onError(arrivalMs));
+                return;
+            }
+            if (resp.statusCode() >= 400) {
+                resp.body().close(); // rate limited or failing: back off instead of parsing an error page
+                throw new IOException("HTTP " + resp.statusCode());
+            }
+            ResponseRecorder rec = recorder;
+            HttpBodies.Counting wire = new HttpBodies.Counting(resp.body());
+            HttpBodies.Counting decoded = new HttpBodies.Counting(HttpBodies.decode(resp, wire));
+            // Recordings keep the decoded JSON, so ReplayProvider does not care how it was sent
+            try (InputStream in = rec != null ? rec.tee(decoded) : decoded) {
+                parser.parse(in, startUsec);
             } catch (JsonParseException ex) {
+                metrics.parseErrors.incrementAndGet();
                 consecutiveErrors++;
                 lastError = "parse(" + ex.getClass().getSimpleName() + "): " + shortMsg(ex.getMessage());
                 // Log a small snippet once per error wave
                 if (consecutiveErrors <= 3 && listener != null) {
-                    listener.onError("Innertube JSON parse failed (#" + consecutiveErrors + "): " + shortMsg(ex.getMessage()) + " snippet=" + snippet(bodyStr));
+                    listener.onError("Innertube JSON parse failed (#" + consecutiveErrors + "): " + shortMsg(ex.getMessage()) + " snippet=" + snippet(parser.snippet()));
                 }
+                long delay = scheduler.onError(arrivalMs);
                 // After several consecutive parse errors, attempt a re-bootstrap
-                if (consecutiveErrors >= 5) {
+                if (consecutiveErrors >= PollScheduler.REBOOTSTRAP_AFTER) {
                     info("Rebootstrapping after repeated parse errors");
                     consecutiveErrors = 0;
-                    initialFetch(lastVideoId);
+                    schedule(this::rebootstrap, delay);
                 } else {
-                    schedulePoll(2000);
+                    schedulePoll(delay);
                 }
                 return;
+            } finally {
+                metrics.recordBody(wire.count, decoded.count);
+                if (rec != null) recordFrame(rec, arrivalMs); // malformed bodies too, so replays reproduce them
             }
+            long t2 = System.nanoTime();
+            metrics.parseTime.recordNanos(t2 - t1);
+            lastLagMs = (t2 - t0) / 1_000_000;
             consecutiveErrors = 0; // reset on success
+            resuming = false;
 
-            Long timeoutMs = 1500L;
-            JsonArray actions = null;
-            boolean advancedContinuation = false;
-            try {
-                JsonObject liveCont = body.getAsJsonObject("continuationContents")
-                    .getAsJsonObject("liveChatContinuation");
-                if (liveCont.has("timeoutMs")) timeoutMs = liveCont.get("timeoutMs").getAsLong();
-                JsonArray conts = liveCont.getAsJsonArray("continuations");
-                if (conts != null && conts.size() > 0) {
-                    JsonObject c0 = conts.get(0).getAsJsonObject();
-                    if (c0.has("invalidationContinuationData")) {
-                        continuation = c0.getAsJsonObject("invalidationContinuationData").get("continuation").getAsString();
-                        advancedContinuation = true;
-                    } else if (c0.has("timedContinuationData")) {
-                        continuation = c0.getAsJsonObject("timedContinuationData").get("continuation").getAsString();
-                        advancedContinuation = true;
-                    }
-                }
-                actions = liveCont.getAsJsonArray("actions");
-            } catch (Exception ignore) { }
+            if (parser.advancedContinuation) continuation = parser.continuation;
+            if (parser.newestUsec > newestUsec) {
+                newestUsec = parser.newestUsec;
+                newestIdCount = 0;
+            }
+            if (parser.newestUsec == newestUsec) {
+                for (int i = 0; i < parser.newestIdCount && newestIdCount < newestIds.length; i++) newestIds[newestIdCount++] = parser.newestIds[i];
+            }
 
             // Detect live ended: several cycles with no continuation advance and no actions
-            if (!advancedContinuation && (actions == null || actions.size() == 0)) {
+            if (!parser.advancedContinuation && parser.actionCount == 0) {
                 emptyCycles++;
                 if (emptyCycles >= EMPTY_CYCLE_END_THRESHOLD) {
                     endStream("no more live chat updates");
@@ -192,69 +361,59 @@ public class InnertubeProvider implements ChatProvider {
                 emptyCycles = 0;
             }
 
-            if (actions != null) {
-                for (JsonElement el : actions) {
-                    try {
-                        JsonObject a = el.getAsJsonObject();
-                        JsonObject addChatItem = a.has("addChatItemAction") ? a.getAsJsonObject("addChatItemAction") : null;
-                        if (addChatItem == null) continue;
-                        JsonObject item = addChatItem.getAsJsonObject("item");
-                        if (item == null) continue;
-                        JsonObject renderer = item.has("liveChatTextMessageRenderer") ? item.getAsJsonObject("liveChatTextMessageRenderer") : null;
-                        if (renderer == null) continue;
-
-                        String name = deepText(renderer.getAsJsonObject("authorName"));
-                        String msg = deepRuns(renderer.getAsJsonObject("message"));
-                        long tsUsec = renderer.has("timestampUsec") ? renderer.get("timestampUsec").getAsLong() : (System.currentTimeMillis() * 1000L);
-                        // Convert to ms for ChatMessage; BridgeServiceClient compares with sessionStartTs (ms)
-                        long ts = tsUsec / 1000L;
-                        // If this is clearly older than start boundary minus small tolerance, skip sending (extra guard)
-                        if (startUsec > 0 && tsUsec + 5_000_000L < startUsec) continue;
-                        ChatMessage.Role role = roleFromBadges(renderer.getAsJsonArray("authorBadges"));
-
-                        if (listener != null) {
-                            listener.onMessage(new ChatMessage(name, msg, role, ts));
-                            synchronized (this) { msgsInWindow++; }
-                        }
-                    } catch (Exception ignore) { }
-                }
+            metrics.received.add(parser.messages.size());
+            metrics.authorLookups.set(parser.authors.lookups);
+            metrics.authorHits.set(parser.authors.hits);
+            metrics.duplicates.set(parser.duplicates);
+            if (listener != null) {
+                for (ChatMessage m : parser.messages) listener.onMessage(m);
             }
-            schedulePoll(timeoutMs != null ? timeoutMs : 1500L);
+            saveCheckpoint(arrivalMs);
+            schedulePoll(scheduler.onSuccess(parser.messages.size(), parser.timeoutMs, arrivalMs));
         } catch (Exception e) {
+            metrics.errors.incrementAndGet();
             lastError = e.getMessage();
-            schedulePoll(2000);
+            schedulePoll(scheduler.onError(System.currentTimeMillis()));
         }
     }
 
-    private static String deepText(JsonObject obj) {
-        if (obj == null) return "";
-        if (obj.has("simpleText")) return obj.get("simpleText").getAsString();
-        return "";
+    private void beginRecording(String videoId) {
+        ResponseRecorder rec = recorder;
+        if (rec == null) return;
+        try {
+            rec.begin(videoId, startUsec);
+            info("Recording to " + rec.file().getFileName());
+        } catch (IOException e) {
+            recorder = null;
+            fail("Recording disabled: " + e.getMessage());
+        }
     }
-    private static String deepRuns(JsonObject obj) {
-        if (obj == null) return "";
+
+    private void openCheckpoint() {
+        Path file = checkpointFile;
+        if (file == null) return;
         try {
-            StringBuilder sb = new StringBuilder();
-            for (JsonElement e : obj.getAsJsonArray("runs")) {
-                JsonObject r = e.getAsJsonObject();
-                if (r.has("text")) sb.append(r.get("text").getAsString());
-            }
-            return sb.toString();
-        } catch (Exception e) { return ""; }
+            checkpoint = ContinuationCheckpoint.open(file);
+        } catch (IOException e) {
+            fail("Checkpoint disabled: " + e.getMessage());
+        }
     }
 
-    private static ChatMessage.Role roleFromBadges(JsonArray badges) {
-        if (badges == null) return ChatMessage.Role.USER;
-        for (JsonElement el : badges) {
-            try {
-                JsonObject b = el.getAsJsonObject().getAsJsonObject("metadataBadgeRenderer");
-                String style = b.get("style").getAsString();
-                if (style.contains("OWNER")) return ChatMessage.Role.OWNER;
-                if (style.contains("MODERATOR")) return ChatMessage.Role.MODERATOR;
-                if (style.contains("MEMBER")) return ChatMessage.Role.MEMBER;
-            } catch (Exception ignore) { }
+    /** After the poll's messages are delivered, so a resume never skips one that was not shown. */
+    private void saveCheckpoint(long nowMs) {
+        ContinuationCheckpoint cp = checkpoint;
+        String c = continuation;
+        if (cp != null && c != null) cp.write(lastVideoId, c, newestUsec, newestIds, newestIdCount, nowMs);
+    }
+
+    private void recordFrame(ResponseRecorder rec, long arrivalMs) {
+        try {
+            rec.commit(arrivalMs);
+        } catch (IOException e) {
+            recorder = null;
+            rec.close();
+            fail("Recording stopped: " + e.getMessage());
         }
-        return ChatMessage.Role.USER;
     }
 
     private static String normalizeVideoId(String v) {
@@ -282,38 +441,8 @@ public class InnertubeProvider implements ChatProvider {
         return s.replace("\\\"", "\"");
     }
 
-    private static String extractInnertubeContext(String html) {
-        String marker = "\"INNERTUBE_CONTEXT\":";
-        int idx = html.indexOf(marker);
-        if (idx < 0) return null;
-        int i = idx + marker.length();
-        // Skip whitespace
-        while (i < html.length() && Character.isWhitespace(html.charAt(i))) i++;
-        if (i >= html.length() || html.charAt(i) != '{') return null;
-        int start = i;
-        int depth = 0;
-        boolean inString = false;
-        for (; i < html.length(); i++) {
-            char c = html.charAt(i);
-            if (c == '"') {
-                // Count backslashes to determine if escaped
-                int bs = 0; int j = i - 1; while (j >= 0 && html.charAt(j) == '\\') { bs++; j--; }
-                if (bs % 2 == 0) inString = !inString;
-            }
-            if (inString) continue;
-            if (c == '{') depth++;
-            else if (c == '}') {
-                depth--;
-                if (depth == 0) {
-                    return html.substring(start, i + 1);
-                }
-            }
-        }
-        return null; // Unbalanced
-    }
-
     private void info(String s) { if (listener != null) listener.onInfo(s); }
-    private void fail(String s) { lastError = s; if (listener != null) listener.onError(s); }
+    private void fail(String s) { metrics.errors.incrementAndGet(); lastError = s; if (listener != null) listener.onError(s); }
     private void endStream(String reason) {
         running.set(false);
         if (listener != null) {
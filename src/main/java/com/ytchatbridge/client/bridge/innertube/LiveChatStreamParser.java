@@ -0,0 +1,466 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming extractor for get_live_chat responses.
+ * Only continuations[0], timeoutMs and the fields of chat items listed in {@link #RENDERERS} are materialized;
+ * every other subtree is skipped token by token without building a Gson tree.
+ * Actions and renderers are found by one table lookup on their key, so unknown ones cost a skipValue and
+ * supporting another renderer is one more table entry.
+ * Items whose {@code id} was already delivered ({@link RecentIds}) are skipped as soon as the ID is read.
+ * Results of the last parse are kept on the instance, so one parser per provider (poll loop is sequential).
+ */
+final class LiveChatStreamParser {
+    static final long DEFAULT_TIMEOUT_MS = 1500L;
+    private static final int SNIPPET_BYTES = 512;
+    private static final int EMOJI_CAPACITY = 2048;
+    /** Messages sharing one microsecond are rare; a checkpoint remembers this many of them. */
+    static final int NEWEST_IDS = 16;
+
+    /** Reads the object value of one action or renderer key; the reader is positioned at its BEGIN_OBJECT. */
+    @FunctionalInterface
+    private interface Handler {
+        void read(LiveChatStreamParser p, JsonReader r, long minTsUsec) throws IOException;
+    }
+
+    private static final Map<String, Handler> ACTIONS = Map.of(
+        "addChatItemAction", LiveChatStreamParser::readAddChatItem);
+
+    private static final Map<String, Handler> RENDERERS = Map.of(
+        "liveChatTextMessageRenderer", (p, r, min) -> p.readChatItem(r, min, ChatMessage.Kind.TEXT),
+        "liveChatPaidMessageRenderer", (p, r, min) -> p.readChatItem(r, min, ChatMessage.Kind.PAID),
+        "liveChatPaidStickerRenderer", (p, r, min) -> p.readChatItem(r, min, ChatMessage.Kind.PAID),
+        "liveChatMembershipItemRenderer", (p, r, min) -> p.readChatItem(r, min, ChatMessage.Kind.MEMBERSHIP));
+
+    // Output of the last parse()
+    String continuation;
+    boolean advancedContinuation;
+    long timeoutMs;
+    int actionCount;
+    long newestUsec; // newest timestamp among messages, 0 if none
+    final long[] newestIds = new long[NEWEST_IDS]; // hashed IDs of the messages at newestUsec, for the checkpoint
+    int newestIdCount;
+    final List<ChatMessage> messages = new ArrayList<>();
+
+    /**
+     * Messages before this were delivered before a checkpoint. Ones at exactly this time may not have been, so they
+     * are kept unless their ID is one {@link #resumeAfter} was given.
+     */
+    long afterUsec;
+
+    final AuthorCache authors = new AuthorCache(AuthorCache.DEFAULT_CAPACITY);
+    final RecentIds ids = new RecentIds(RecentIds.DEFAULT_CAPACITY);
+    long duplicates; // items dropped because their ID was already delivered
+    private final StringBuilder runs = new StringBuilder(256);
+    // emojiId -> text shown for it; once known, the rest of the emoji object (images, search terms) is skipped
+    private final Map<String, String> emojiText = new HashMap<>();
+    private long now; // wall clock at the start of this parse, for author cache freshness
+    private final HeadCapture head = new HeadCapture();
+
+    /**
+     * Parses one response body. Messages older than {@code minTsUsec} (minus 5s tolerance) are dropped.
+     * Malformed JSON is reported as {@link JsonSyntaxException}, mirroring JsonParser.parseString. After that or any
+     * other failure the parse leaves no trace, so the same body can be fetched and parsed again.
+     */
+    void parse(InputStream body, long minTsUsec) throws IOException {
+        continuation = null;
+        advancedContinuation = false;
+        timeoutMs = DEFAULT_TIMEOUT_MS;
+        actionCount = 0;
+        newestUsec = 0;
+        newestIdCount = 0;
+        messages.clear();
+        long duplicatesBefore = duplicates;
+        now = System.currentTimeMillis();
+        head.reset(body);
+        JsonReader r = new JsonReader(new InputStreamReader(head, StandardCharsets.UTF_8));
+        boolean parsed = false;
+        try {
+            if (r.peek() != JsonToken.BEGIN_OBJECT) throw new MalformedJsonException("Expected object but was " + r.peek());
+            r.beginObject();
+            while (r.hasNext()) {
+                if (r.nextName().equals("continuationContents") && isObject(r)) readContinuationContents(r, minTsUsec);
+                else r.skipValue();
+            }
+            r.endObject();
+            parsed = true;
+        } catch (MalformedJsonException | EOFException | IllegalStateException e) {
+            throw new JsonSyntaxException(e.getMessage(), e);
+        } finally {
+            if (parsed) ids.commit();
+            else {
+                // Whatever cut the body short (bad JSON, a reset connection, a broken gzip stream), none of this
+                // response is delivered, so its IDs must not block the retry
+                messages.clear();
+                newestUsec = 0;
+                newestIdCount = 0;
+                ids.rollback();
+                duplicates = duplicatesBefore;
+            }
+        }
+    }
+
+    /** Continues after a checkpoint: drops what precedes {@code usec}, and the messages with these IDs at it. */
+    void resumeAfter(long usec, long[] deliveredIds) {
+        afterUsec = usec;
+        for (long h : deliveredIds) if (h != 0) ids.add(h);
+        ids.commit();
+    }
+
+    /** First bytes of the last body, for error reporting. */
+    String snippet() {
+        return new String(head.buf, 0, head.len, StandardCharsets.UTF_8);
+    }
+
+    private void readContinuationContents(JsonReader r, long minTsUsec) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("liveChatContinuation") && isObject(r)) readLiveChatContinuation(r, minTsUsec);
+            else r.skipValue();
+        }
+        r.endObject();
+    }
+
+    private void readLiveChatContinuation(JsonReader r, long minTsUsec) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "timeoutMs" -> {
+                    long t = readLong(r, -1L);
+                    if (t >= 0) timeoutMs = t;
+                }
+                case "continuations" -> {
+                    if (!isArray(r)) { r.skipValue(); break; }
+                    r.beginArray();
+                    if (r.hasNext()) {
+                        if (isObject(r)) readFirstContinuation(r); else r.skipValue();
+                    }
+                    while (r.hasNext()) r.skipValue();
+                    r.endArray();
+                }
+                case "actions" -> {
+                    if (!isArray(r)) { r.skipValue(); break; }
+                    r.beginArray();
+                    while (r.hasNext()) {
+                        actionCount++;
+                        if (isObject(r)) dispatch(r, ACTIONS, minTsUsec); else r.skipValue();
+                    }
+                    r.endArray();
+                }
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+    }
+
+    private void readFirstContinuation(JsonReader r) throws IOException {
+        String invalidation = null, timed = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "invalidationContinuationData" -> invalidation = readContinuationData(r);
+                case "timedContinuationData" -> timed = readContinuationData(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        String c = invalidation != null ? invalidation : timed;
+        if (c != null) {
+            continuation = c;
+            advancedContinuation = true;
+        }
+    }
+
+    private static String readContinuationData(JsonReader r) throws IOException {
+        if (!isObject(r)) { r.skipValue(); return null; }
+        String c = null;
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("continuation")) c = readString(r);
+            else r.skipValue();
+        }
+        r.endObject();
+        return c;
+    }
+
+    private void readAddChatItem(JsonReader r, long minTsUsec) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("item") && isObject(r)) dispatch(r, RENDERERS, minTsUsec);
+            else r.skipValue();
+        }
+        r.endObject();
+    }
+
+    private void dispatch(JsonReader r, Map<String, Handler> table, long minTsUsec) throws IOException {
+        r.beginObject();
+        while (r.hasNext()) {
+            Handler h = table.get(r.nextName());
+            if (h != null && isObject(r)) h.read(this, r, minTsUsec);
+            else r.skipValue();
+        }
+        r.endObject();
+    }
+
+    /** Text, paid and membership items share their author, timestamp and message fields. */
+    private void readChatItem(JsonReader r, long minTsUsec, ChatMessage.Kind kind) throws IOException {
+        String name = null;
+        String msg = "";
+        String channelId = null;
+        String detail = null;
+        String header = null; // membership: "New member" / "Welcome to …!", or the tier on milestones
+        long tsUsec = -1L;
+        long idHash = 0L;
+        boolean duplicate = false;
+        ChatMessage.Role role = ChatMessage.Role.USER; // no badges at all means a plain user
+        AuthorCache.Author cached = null; // by channel ID, once that has been read
+        AuthorCache.Author guess = null; // by handle, while the channel ID is still to come
+        AuthorCache.Author skippedFor = null; // the fresh entry whose role stood in for the badges
+        r.beginObject();
+        while (r.hasNext()) {
+            String field = r.nextName();
+            if (duplicate) { r.skipValue(); continue; } // already delivered: nothing more to read
+            switch (field) {
+                case "authorName" -> {
+                    if (cached != null && cached.fresh(now)) r.skipValue();
+                    else {
+                        name = readSimpleText(r);
+                        if (channelId == null) guess = authors.byHandle(name);
+                    }
+                }
+                case "message" -> msg = readRuns(r);
+                case "timestampUsec" -> tsUsec = readLong(r, -1L);
+                case "id" -> {
+                    String id = readString(r);
+                    if (id != null) {
+                        idHash = RecentIds.hash(id);
+                        duplicate = ids.contains(idHash);
+                    }
+                }
+                case "authorBadges" -> {
+                    // The handle's entry stands in until the ID arrives; confirm() only trusts it if the ID agrees
+                    AuthorCache.Author known = channelId != null ? cached : guess;
+                    if (known != null && known.fresh(now)) {
+                        r.skipValue();
+                        skippedFor = known;
+                    } else role = readBadges(r);
+                }
+                case "authorExternalChannelId" -> {
+                    channelId = readString(r);
+                    if (channelId != null) cached = authors.byId(channelId);
+                }
+                case "purchaseAmountText" -> detail = readRuns(r);
+                case "headerPrimaryText" -> detail = readRuns(r); // milestone, e.g. "Member for 6 months"
+                case "headerSubtext" -> header = readRuns(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        if (duplicate) { duplicates++; return; }
+        if (tsUsec < 0) tsUsec = System.currentTimeMillis() * 1000L;
+        // If this is clearly older than start boundary minus small tolerance, skip sending (extra guard)
+        if (minTsUsec > 0 && tsUsec + 5_000_000L < minTsUsec) return;
+        if (tsUsec < afterUsec) return; // equal: kept unless its ID was checkpointed, caught above
+        if (idHash != 0) ids.add(idHash);
+        if (channelId != null) {
+            AuthorCache.Author a = authors.confirm(channelId, cached, name, skippedFor, role, now);
+            name = a.name;
+            role = a.role;
+        }
+        if (detail == null) detail = header;
+        if (tsUsec > newestUsec) {
+            newestUsec = tsUsec;
+            newestIdCount = 0;
+        }
+        if (tsUsec == newestUsec && idHash != 0 && newestIdCount < NEWEST_IDS) newestIds[newestIdCount++] = idHash;
+        // Convert to ms for ChatMessage; BridgeServiceClient compares with sessionStartTs (ms)
+        messages.add(new ChatMessage(name != null ? name : "", msg, role, tsUsec / 1000L, kind, kind == ChatMessage.Kind.TEXT ? null : detail));
+    }
+
+    private static String readSimpleText(JsonReader r) throws IOException {
+        if (!isObject(r)) { r.skipValue(); return ""; }
+        String s = "";
+        r.beginObject();
+        while (r.hasNext()) {
+            if (r.nextName().equals("simpleText")) {
+                String v = readString(r);
+                if (v != null) s = v;
+            } else r.skipValue();
+        }
+        r.endObject();
+        return s;
+    }
+
+    /** Concatenated text and emoji runs, or simpleText; YouTube uses either form for most text fields. */
+    private String readRuns(JsonReader r) throws IOException {
+        if (!isObject(r)) { r.skipValue(); return ""; }
+        runs.setLength(0);
+        r.beginObject();
+        while (r.hasNext()) {
+            String key = r.nextName();
+            if (key.equals("simpleText")) {
+                String t = readString(r);
+                if (t != null) runs.append(t);
+                continue;
+            }
+            if (!key.equals("runs") || !isArray(r)) { r.skipValue(); continue; }
+            r.beginArray();
+            while (r.hasNext()) {
+                if (!isObject(r)) { r.skipValue(); continue; }
+                r.beginObject();
+                while (r.hasNext()) {
+                    switch (r.nextName()) {
+                        case "text" -> {
+                            String t = readString(r);
+                            if (t != null) runs.append(t);
+                        }
+                        case "emoji" -> runs.append(readEmoji(r));
+                        default -> r.skipValue();
+                    }
+                }
+                r.endObject();
+            }
+            r.endArray();
+        }
+        r.endObject();
+        return runs.toString();
+    }
+
+    /**
+     * Text for an emoji run: its first shortcut (":smile:", ":_channelEmote:"), which the HUD font can show,
+     * or for a standard emoji without one the emoji itself. Cached per emojiId, as chat repeats the same few.
+     */
+    private String readEmoji(JsonReader r) throws IOException {
+        if (!isObject(r)) { r.skipValue(); return ""; }
+        String id = null, shortcut = null;
+        boolean custom = false;
+        r.beginObject();
+        while (r.hasNext()) {
+            switch (r.nextName()) {
+                case "emojiId" -> {
+                    id = readString(r);
+                    String known = id != null ? emojiText.get(id) : null;
+                    if (known != null) {
+                        while (r.hasNext()) { r.nextName(); r.skipValue(); }
+                        r.endObject();
+                        return known;
+                    }
+                }
+                case "shortcuts" -> {
+                    if (!isArray(r)) { r.skipValue(); break; }
+                    r.beginArray();
+                    if (r.hasNext()) shortcut = readString(r);
+                    while (r.hasNext()) r.skipValue();
+                    r.endArray();
+                }
+                case "isCustomEmoji" -> custom = r.peek() == JsonToken.BOOLEAN ? r.nextBoolean() : skipFalse(r);
+                default -> r.skipValue();
+            }
+        }
+        r.endObject();
+        String text = shortcut != null ? shortcut : custom || id == null ? "" : id;
+        if (id != null) {
+            if (emojiText.size() >= EMOJI_CAPACITY) emojiText.clear();
+            emojiText.put(id, text);
+        }
+        return text;
+    }
+
+    /** First badge whose style names a known role wins, like the old tree walk. */
+    private static ChatMessage.Role readBadges(JsonReader r) throws IOException {
+        if (!isArray(r)) { r.skipValue(); return ChatMessage.Role.USER; }
+        ChatMessage.Role role = ChatMessage.Role.USER;
+        r.beginArray();
+        while (r.hasNext()) {
+            if (!isObject(r)) { r.skipValue(); continue; }
+            r.beginObject();
+            while (r.hasNext()) {
+                if (!r.nextName().equals("metadataBadgeRenderer") || !isObject(r)) { r.skipValue(); continue; }
+                r.beginObject();
+                while (r.hasNext()) {
+                    if (r.nextName().equals("style")) {
+                        String style = readString(r);
+                        if (role == ChatMessage.Role.USER && style != null) role = roleFromStyle(style);
+                    } else r.skipValue();
+                }
+                r.endObject();
+            }
+            r.endObject();
+        }
+        r.endArray();
+        return role;
+    }
+
+    static ChatMessage.Role roleFromStyle(String style) {
+        if (style.contains("OWNER")) return ChatMessage.Role.OWNER;
+        if (style.contains("MODERATOR")) return ChatMessage.Role.MODERATOR;
+        if (style.contains("MEMBER")) return ChatMessage.Role.MEMBER;
+        return ChatMessage.Role.USER;
+    }
+
+    private static boolean skipFalse(JsonReader r) throws IOException {
+        r.skipValue();
+        return false;
+    }
+
+    private static boolean isObject(JsonReader r) throws IOException { return r.peek() == JsonToken.BEGIN_OBJECT; }
+    private static boolean isArray(JsonReader r) throws IOException { return r.peek() == JsonToken.BEGIN_ARRAY; }
+
+    private static String readString(JsonReader r) throws IOException {
+        JsonToken t = r.peek();
+        if (t == JsonToken.STRING || t == JsonToken.NUMBER) return r.nextString();
+        r.skipValue();
+        return null;
+    }
+
+    private static long readLong(JsonReader r, long fallback) throws IOException {
+        JsonToken t = r.peek();
+        if (t != JsonToken.STRING && t != JsonToken.NUMBER) { r.skipValue(); return fallback; }
+        String s = r.nextString();
+        try { return Long.parseLong(s); } catch (NumberFormatException e) { return fallback; }
+    }
+
+    /** Keeps the first bytes of the body so parse errors can still log a snippet. */
+    private static final class HeadCapture extends FilterInputStream {
+        final byte[] buf = new byte[SNIPPET_BYTES];
+        int len;
+
+        HeadCapture() { super(InputStream.nullInputStream()); }
+
+        void reset(InputStream body) { in = body; len = 0; }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0 && len < buf.length) buf[len++] = (byte) b;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int n) throws IOException {
+            int got = super.read(b, off, n);
+            if (got > 0 && len < buf.length) {
+                int k = Math.min(got, buf.length - len);
+                System.arraycopy(b, off, buf, len, k);
+                len += k;
+            }
+            return got;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads the live chat continuation out of a youtubei/v1/next response as a token stream, so whitespace, key order
+ * and escapes don't matter the way they do to {@link WatchPageScanner}'s byte markers. Only a "continuation" inside
+ * liveChatRenderer counts: the comments section has continuations of its own and may come first.
+ * Stops at the match; the caller closes the stream, which cancels the rest of the download.
+ */
+final class NextResponse {
+    private NextResponse() {}
+
+    /** The first continuation under liveChatRenderer, or null if the video has no chat. */
+    static String chatContinuation(JsonReader r) throws IOException {
+        return find(r, false);
+    }
+
+    private static String find(JsonReader r, boolean inChat) throws IOException {
+        switch (r.peek()) {
+            case BEGIN_OBJECT -> {
+                r.beginObject();
+                while (r.hasNext()) {
+                    String name = r.nextName();
+                    if (inChat && name.equals("continuation") && r.peek() == JsonToken.STRING) return r.nextString();
+                    String found = find(r, inChat || name.equals("liveChatRenderer"));
+                    if (found != null) return found;
+                }
+                r.endObject();
+            }
+            case BEGIN_ARRAY -> {
+                r.beginArray();
+                while (r.hasNext()) {
+                    String found = find(r, inChat);
+                    if (found != null) return found;
+                }
+                r.endArray();
+            }
+            default -> r.skipValue();
+        }
+        return null;
+    }
+}
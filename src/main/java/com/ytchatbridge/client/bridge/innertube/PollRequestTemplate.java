@@ -0,0 +1,128 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.google.gson.JsonObject;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Flow;
+
+/**
+ * get_live_chat request built once per bootstrap.
+ * The Innertube context is serialized a single time into a byte prefix; each poll only escapes the new continuation
+ * and splices it between the cached prefix and suffix. The request and its body publisher are reused, so a template
+ * must only be driven by one poll at a time (the provider's poll loop is sequential).
+ */
+final class PollRequestTemplate {
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] prefix;
+    private final Body body = new Body();
+    private final HttpRequest request;
+
+    PollRequestTemplate(String apiKey, JsonObject context, String userAgent) {
+        this.prefix = ("{\"context\":" + context + ",\"continuation\":\"").getBytes(StandardCharsets.UTF_8);
+        this.request = HttpRequest.newBuilder(URI.create("https://www.youtube.com/youtubei/v1/live_chat/get_live_chat?key=" + apiKey))
+                .timeout(Duration.ofSeconds(15))
+                .header("Content-Type", "application/json")
+                .header("User-Agent", userAgent)
+                .header("Accept-Encoding", HttpBodies.ACCEPT_ENCODING)
+                .POST(body)
+                .build();
+    }
+
+    /** Points the shared body at {@code continuation} and returns the cached request. */
+    HttpRequest request(String continuation) {
+        body.token = escape(continuation);
+        return request;
+    }
+
+    /** JSON string escaping straight to UTF-8 bytes; continuation tokens are plain ASCII in practice. */
+    static byte[] escape(String s) {
+        int extra = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') extra += 1;
+            else if (c < 0x20) extra += 5;
+            else if (c >= 0x80) return escapeSlow(s);
+        }
+        byte[] out = new byte[s.length() + extra];
+        int o = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') { out[o++] = '\\'; out[o++] = (byte) c; }
+            else if (c < 0x20) {
+                out[o++] = '\\'; out[o++] = 'u'; out[o++] = '0'; out[o++] = '0';
+                out[o++] = HEX[c >> 4]; out[o++] = HEX[c & 0xF];
+            } else out[o++] = (byte) c;
+        }
+        return out;
+    }
+
+    private static byte[] escapeSlow(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 8);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Publishes prefix, token and suffix as three read-only buffers with a known content length. */
+    private final class Body implements HttpRequest.BodyPublisher {
+        volatile byte[] token = new byte[0];
+
+        @Override
+        public long contentLength() { return prefix.length + token.length + SUFFIX.length; }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            subscriber.onSubscribe(new Parts(subscriber, token));
+        }
+    }
+
+    private final class Parts implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final byte[] token;
+        private long demand;
+        private int next;
+        private boolean emitting, done;
+
+        Parts(Flow.Subscriber<? super ByteBuffer> subscriber, byte[] token) {
+            this.subscriber = subscriber;
+            this.token = token;
+        }
+
+        @Override
+        public void request(long n) {
+            if (done) return;
+            if (n <= 0) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException("non-positive request: " + n));
+                return;
+            }
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            if (emitting) return; // re-entrant call from onNext; the outer loop picks up the demand
+            emitting = true;
+            while (!done && demand > 0 && next < 3) {
+                demand--;
+                byte[] part = next == 0 ? prefix : next == 1 ? token : SUFFIX;
+                next++;
+                subscriber.onNext(ByteBuffer.wrap(part).asReadOnlyBuffer());
+            }
+            if (!done && next == 3) {
+                done = true;
+                subscriber.onComplete();
+            }
+            emitting = false;
+        }
+
+        @Override
+        public void cancel() { done = true; }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides when an {@link InnertubeProvider} polls next.
+ * <ul>
+ *   <li>Quiet chat: the server's {@code timeoutMs} as-is.</li>
+ *   <li>Hot chat: shorter, aiming at {@link #TARGET_BATCH} messages per response from a smoothed message rate,
+ *       but never below {@link #HINT_FLOOR} of the server's hint.</li>
+ *   <li>Errors: exponential backoff with full jitter (uniform in 0..min(cap, base·2^streak)), also used between
+ *       re-bootstrap attempts.</li>
+ *   <li>Always: requests for one video start at least {@link #MIN_INTERVAL_MS} apart.</li>
+ * </ul>
+ * Not thread-safe; the provider calls it from its sequential poll chain.
+ */
+final class PollScheduler {
+    static final long MIN_INTERVAL_MS = 250;
+    static final double HINT_FLOOR = 0.5;
+    static final int TARGET_BATCH = 20;
+    static final long BACKOFF_BASE_MS = 1000;
+    static final long BACKOFF_CAP_MS = 60_000;
+    static final int REBOOTSTRAP_AFTER = 5; // consecutive parse errors
+    private static final double RATE_ALPHA = 0.3; // weight of the newest interval in the smoothed rate
+
+    private double msgsPerSec;
+    private long lastRequestMs;
+    private long lastSuccessMs;
+    private int errorStreak;
+
+    void reset() {
+        msgsPerSec = 0;
+        lastRequestMs = 0;
+        lastSuccessMs = 0;
+        errorStreak = 0;
+    }
+
+    /** Call as each request is sent. */
+    void onRequest(long nowMs) { lastRequestMs = nowMs; }
+
+    /** Delay before the next poll after a response with {@code messages} chat items and the given hint. */
+    long onSuccess(int messages, long hintMs, long nowMs) {
+        errorStreak = 0;
+        if (lastSuccessMs > 0) {
+            double sec = Math.max(1, nowMs - lastSuccessMs) / 1000.0;
+            msgsPerSec += RATE_ALPHA * (messages / sec - msgsPerSec);
+        }
+        lastSuccessMs = nowMs;
+        long delay = hintMs;
+        if (msgsPerSec > 0) {
+            long target = (long) (TARGET_BATCH / msgsPerSec * 1000);
+            delay = Math.max((long) (hintMs * HINT_FLOOR), Math.min(hintMs, target));
+        }
+        return capped(delay, nowMs);
+    }
+
+    /** Delay before the next attempt after a failed poll or bootstrap. */
+    long onError(long nowMs) {
+        errorStreak = Math.min(errorStreak + 1, 30);
+        long ceiling = Math.min(BACKOFF_CAP_MS, BACKOFF_BASE_MS << Math.min(errorStreak - 1, 16));
+        return capped(ThreadLocalRandom.current().nextLong(ceiling + 1), nowMs);
+    }
+
+    /** Smoothed messages per second over recent successful polls. */
+    double rate() { return msgsPerSec; }
+
+    int errorStreak() { return errorStreak; }
+
+    private long capped(long delay, long nowMs) {
+        return Math.max(delay, lastRequestMs + MIN_INTERVAL_MS - nowMs);
+    }
+}
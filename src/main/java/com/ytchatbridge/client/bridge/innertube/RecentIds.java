@@ -0,0 +1,110 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+/**
+ * Chat item IDs recently delivered by one {@link LiveChatStreamParser}, so a message that comes back after a
+ * re-bootstrap or in overlapping continuations is dropped. Holds 64-bit hashes of the IDs, not the Strings, in a
+ * linear-probing table kept at most half full, plus a ring in insertion order that evicts the oldest once
+ * {@code capacity} IDs are held: memory is fixed however long the session runs.
+ * <p>
+ * Additions are pending until {@link #commit} and dropped by {@link #rollback}, so a response that fails halfway
+ * leaves no trace. Eviction waits for the commit as well: a failed response must not push out IDs of messages
+ * already delivered. Up to {@code capacity} pending IDs fit on top of a full set; only a single response with more
+ * new items than that evicts early.
+ * Not thread-safe; the parser is confined to its provider's poll chain.
+ */
+final class RecentIds {
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private final long[] table; // 0 = empty slot
+    private final int mask;
+    private final long[] order; // ring in insertion order; head is the next write
+    private int head;
+    private int size;
+    private int pending; // newest additions not committed yet
+
+    RecentIds(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        order = new long[this.capacity * 2];
+        table = new long[Integer.highestOneBit(order.length * 4 - 1)];
+        mask = table.length - 1;
+    }
+
+    /** 64-bit FNV-1a of the ID, finalized so the low bits index well; never 0. */
+    static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    boolean contains(long h) {
+        for (int i = (int) h & mask; ; i = (i + 1) & mask) {
+            long t = table[i];
+            if (t == h) return true;
+            if (t == 0) return false;
+        }
+    }
+
+    /** Records {@code h} as pending; false if it was already there. */
+    boolean add(long h) {
+        if (contains(h)) return false;
+        if (size == order.length) {
+            evictOldest();
+            if (pending > size) pending = size;
+        }
+        int i = (int) h & mask;
+        while (table[i] != 0) i = (i + 1) & mask;
+        table[i] = h;
+        order[head] = h;
+        head = (head + 1) % order.length;
+        size++;
+        pending++;
+        return true;
+    }
+
+    /** Keeps the pending additions, then evicts the oldest IDs down to {@code capacity}. */
+    void commit() {
+        pending = 0;
+        while (size > capacity) evictOldest();
+    }
+
+    /** Forgets the pending additions, e.g. those of a response that failed to parse. */
+    void rollback() {
+        for (; pending > 0; pending--) {
+            head = (head - 1 + order.length) % order.length;
+            remove(order[head]);
+            size--;
+        }
+    }
+
+    int size() { return size; }
+
+    private void evictOldest() {
+        remove(order[(head - size + order.length) % order.length]);
+        size--;
+    }
+
+    /** Deletes by shifting later entries of the probe run back, so lookups never need tombstones. */
+    private void remove(long h) {
+        int i = (int) h & mask;
+        while (table[i] != h) {
+            if (table[i] == 0) return;
+            i = (i + 1) & mask;
+        }
+        for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+            int home = (int) table[j] & mask;
+            // The entry at j may fill the hole at i only if i lies on its probe path from home
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                table[i] = table[j];
+                i = j;
+            }
+        }
+        table[i] = 0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.google.gson.JsonParseException;
+import com.ytchatbridge.client.bridge.ChatProvider;
+import com.ytchatbridge.client.bridge.ProviderStatus;
+import com.ytchatbridge.client.metrics.ProviderMetrics;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays a {@link ResponseRecorder} file back through the normal {@link ChatProvider.Listener} path, with no network.
+ * Responses are parsed by the same parser as live polls and released on the recorded arrival schedule divided by
+ * {@code speed}; {@link #MAX_SPEED} releases them back to back. Message timestamps are moved onto the replay clock
+ * (scaled the same way), so backlog skipping and end-to-end metrics behave as they did live.
+ */
+public class ReplayProvider implements ChatProvider {
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    private final Path file;
+    private final double speed;
+    private final LiveChatStreamParser parser = new LiveChatStreamParser();
+    private final ProviderMetrics metrics = new ProviderMetrics();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile Listener listener;
+    private volatile Thread thread;
+    private volatile String lastError = "";
+    private volatile long frames;
+
+    public ReplayProvider(Path file, double speed) {
+        this.file = file;
+        this.speed = speed > 0 ? speed : 1.0;
+    }
+
+    /** Reads only the header; lets callers name the session before starting it. */
+    public static String recordedVideoId(Path file) throws IOException {
+        try (ResponseRecorder.Reader r = new ResponseRecorder.Reader(file)) {
+            return r.videoId;
+        }
+    }
+
+    @Override
+    public void start(String videoIdOrUrl) {
+        if (running.getAndSet(true)) return;
+        lastError = "";
+        Thread t = new Thread(this::run, "YTChat-Replay");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    @Override
+    public void stop() {
+        running.set(false);
+        Thread t = thread;
+        if (t != null) LockSupport.unpark(t);
+    }
+
+    @Override
+    public ProviderStatus status() {
+        String name = "replay " + (Double.isInfinite(speed) ? "max" : speed + "x") + " frame " + frames;
+        return new ProviderStatus(name, running.get(), "", (int) metrics.received.perMinute(), 0, lastError, metrics);
+    }
+
+    @Override
+    public void setListener(Listener listener) { this.listener = listener; }
+
+    private void run() {
+        try (ResponseRecorder.Reader r = new ResponseRecorder.Reader(file)) {
+            info("Replaying " + file.getFileName() + " (" + r.videoId + ")");
+            long wallStartMs = System.currentTimeMillis();
+            long wallStartNs = System.nanoTime();
+            long firstArrivalMs = -1;
+            while (running.get() && r.next()) {
+                if (firstArrivalMs < 0) firstArrivalMs = r.arrivalMs;
+                long offsetMs = r.arrivalMs - firstArrivalMs;
+                if (!Double.isInfinite(speed)) {
+                    long dueNs = wallStartNs + (long) (offsetMs * 1_000_000L / speed);
+                    long wait;
+                    while (running.get() && (wait = dueNs - System.nanoTime()) > 0) LockSupport.parkNanos(this, wait);
+                    if (!running.get()) break;
+                }
+                frames++;
+                metrics.polls.incrementAndGet();
+                long t0 = System.nanoTime();
+                try {
+                    parser.parse(new ByteArrayInputStream(r.body, 0, r.bodyLen), r.startUsec);
+                } catch (JsonParseException ex) {
+                    metrics.parseErrors.incrementAndGet();
+                    lastError = "parse: " + ex.getMessage();
+                    continue;
+                }
+                metrics.parseTime.recordNanos(System.nanoTime() - t0);
+                metrics.received.add(parser.messages.size());
+                metrics.authorLookups.set(parser.authors.lookups);
+                metrics.authorHits.set(parser.authors.hits);
+                Listener l = listener;
+                if (l == null) continue;
+                for (ChatMessage m : parser.messages) {
+                    l.onMessage(new ChatMessage(m.displayName, m.message, m.role, replayTime(m.timestamp, firstArrivalMs, wallStartMs), m.kind, m.detail));
+                }
+            }
+            info(running.get() ? "Replay finished (" + frames + " responses)" : "Replay stopped");
+        } catch (IOException e) {
+            metrics.errors.incrementAndGet();
+            lastError = e.getMessage();
+            if (listener != null) listener.onError("Replay failed: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Same distance from the first response as in the recording, compressed by the replay speed; "now" at max speed
+    private long replayTime(long recordedMs, long firstArrivalMs, long wallStartMs) {
+        if (Double.isInfinite(speed)) return System.currentTimeMillis();
+        return wallStartMs + (long) ((recordedMs - firstArrivalMs) / speed);
+    }
+
+    private void info(String s) { if (listener != null) listener.onInfo(s); }
+}
@@ -0,0 +1,146 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Saves every raw get_live_chat body with its arrival time, for {@link ReplayProvider}.
+ * File format (gzip): magic, version, video ID, session start (µs), then one frame per response:
+ * arrival epoch ms, body length, body bytes. The body is captured while the parser streams it ({@link #tee}),
+ * so recording adds one copy into a reused buffer and one write per poll.
+ */
+public final class ResponseRecorder {
+    static final int MAGIC = 0x59545243; // "YTRC"
+    static final int VERSION = 1;
+
+    private final Path file;
+    private DataOutputStream out;
+    private byte[] buf = new byte[64 * 1024];
+    private int len;
+    private long frames;
+
+    public ResponseRecorder(Path file) {
+        this.file = file;
+    }
+
+    public Path file() { return file; }
+
+    synchronized long frames() { return frames; }
+
+    /** Writes the header; called by the provider when the session starts. */
+    synchronized void begin(String videoId, long startUsec) throws IOException {
+        Files.createDirectories(file.getParent());
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(videoId);
+        out.writeLong(startUsec);
+        out.flush();
+    }
+
+    /** Wraps a response body so everything read from it is also captured for the next {@link #commit}. */
+    synchronized InputStream tee(InputStream body) {
+        len = 0;
+        return new FilterInputStream(body) {
+            @Override public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) capture(b);
+                return b;
+            }
+
+            @Override public int read(byte[] b, int off, int n) throws IOException {
+                int r = super.read(b, off, n);
+                if (r > 0) capture(b, off, r);
+                return r;
+            }
+        };
+    }
+
+    /** Writes the captured body as one frame. Malformed bodies are kept too, so replays reproduce parse errors. */
+    synchronized void commit(long arrivalMs) throws IOException {
+        if (out == null) return;
+        out.writeLong(arrivalMs);
+        out.writeInt(len);
+        out.write(buf, 0, len);
+        out.flush();
+        frames++;
+        len = 0;
+    }
+
+    synchronized void close() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        out = null;
+    }
+
+    private synchronized void capture(int b) {
+        if (len == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+        buf[len++] = (byte) b;
+    }
+
+    private synchronized void capture(byte[] b, int off, int n) {
+        if (len + n > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+        System.arraycopy(b, off, buf, len, n);
+        len += n;
+    }
+
+    /** Sequential reader for a recording; frames are read one at a time so long sessions are not loaded whole. */
+    static final class Reader implements AutoCloseable {
+        final String videoId;
+        final long startUsec;
+        private final DataInputStream in;
+        long arrivalMs;
+        byte[] body = new byte[0];
+        int bodyLen;
+
+        Reader(Path file) throws IOException {
+            in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file), 64 * 1024));
+            try {
+                if (in.readInt() != MAGIC) throw new IOException("Not a chat recording: " + file.getFileName());
+                int version = in.readInt();
+                if (version != VERSION) throw new IOException("Unsupported recording version " + version);
+                videoId = in.readUTF();
+                startUsec = in.readLong();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Loads the next frame into {@link #arrivalMs}/{@link #body}; false at the end of the recording, including a
+         * frame cut short because the client exited mid-write.
+         */
+        boolean next() throws IOException {
+            try {
+                arrivalMs = in.readLong();
+                bodyLen = in.readInt();
+                if (bodyLen < 0) throw new IOException("Corrupt frame length " + bodyLen);
+                if (body.length < bodyLen) body = new byte[Math.max(bodyLen, body.length * 2)];
+                in.readFully(body, 0, bodyLen);
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Single-pass incremental scanner for the watch page bootstrap.
+ * Bytes are fed as they arrive; the scanner looks for INNERTUBE_API_KEY, the first "continuation" and the
+ * balanced INNERTUBE_CONTEXT object at the same time, so the caller can stop downloading once {@link #complete()}.
+ * Matching follows the old regex/indexOf logic: first occurrence wins, quoted values end at the next quote.
+ */
+final class WatchPageScanner {
+    /** Give up on pages larger than this; the markers normally show up well before. */
+    static final int MAX_PAGE_BYTES = 8 << 20;
+    private static final int MAX_VALUE_BYTES = 4 << 10;
+    private static final int MAX_CONTEXT_BYTES = 256 << 10;
+
+    private final QuotedValue apiKey = new QuotedValue("\"INNERTUBE_API_KEY\":\"");
+    private final QuotedValue continuation = new QuotedValue("\"continuation\":\"");
+    private final Marker ctxMarker = new Marker("\"INNERTUBE_CONTEXT\":");
+    private final Capture ctx = new Capture(MAX_CONTEXT_BYTES);
+
+    // INNERTUBE_CONTEXT state: 0 = searching, 1 = skipping whitespace, 2 = capturing object, 3 = done (found or failed)
+    private int ctxState;
+    private int ctxDepth;
+    private boolean ctxInString;
+    private int ctxBackslashes;
+    private String ctxJson;
+    private long total;
+
+    void feed(byte[] buf, int off, int len) {
+        total += len;
+        for (int i = off, end = off + len; i < end; i++) {
+            byte b = buf[i];
+            apiKey.step(b);
+            continuation.step(b);
+            if (ctxState != 3) stepContext(b);
+        }
+    }
+
+    /** True once every target is resolved, or the size limit was hit; the rest of the page can be dropped. */
+    boolean complete() {
+        return (apiKey.value != null && continuation.value != null && ctxState == 3) || total >= MAX_PAGE_BYTES;
+    }
+
+    String apiKey() { return apiKey.value; }
+    String continuation() { return continuation.value; }
+    /** Raw (still escaped) INNERTUBE_CONTEXT object, or null when missing or unbalanced. */
+    String context() { return ctxJson; }
+    long bytesScanned() { return total; }
+
+    private void stepContext(byte b) {
+        switch (ctxState) {
+            case 0 -> {
+                if (ctxMarker.step(b)) ctxState = 1;
+            }
+            case 1 -> {
+                if (isWhitespace(b)) return;
+                if (b != '{') { ctxState = 3; return; } // only the first marker is considered
+                ctxState = 2;
+                ctxDepth = 0;
+                ctxInString = false;
+                ctxBackslashes = 0;
+                captureContext(b);
+            }
+            case 2 -> captureContext(b);
+            default -> { }
+        }
+    }
+
+    private void captureContext(byte b) {
+        if (!ctx.add(b)) { ctxState = 3; return; }
+        if (b == '"' && (ctxBackslashes & 1) == 0) ctxInString = !ctxInString;
+        ctxBackslashes = b == '\\' ? ctxBackslashes + 1 : 0;
+        if (ctxInString) return;
+        if (b == '{') ctxDepth++;
+        else if (b == '}' && --ctxDepth == 0) {
+            ctxJson = ctx.string();
+            ctxState = 3;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || (b >= 0x09 && b <= 0x0D) || (b >= 0x1C && b <= 0x1F);
+    }
+
+    /** Marker followed by a value running up to the next quote; a line break aborts the match like regex '.'. */
+    private static final class QuotedValue {
+        private final Marker marker;
+        private final Capture capture = new Capture(MAX_VALUE_BYTES);
+        private boolean capturing;
+        String value;
+
+        QuotedValue(String marker) { this.marker = new Marker(marker); }
+
+        void step(byte b) {
+            if (value != null) return;
+            if (!capturing) {
+                if (marker.step(b)) { capturing = true; capture.reset(); }
+                return;
+            }
+            if (b == '"') {
+                value = capture.string();
+                capturing = false;
+            } else if (b == '\n' || b == '\r' || !capture.add(b)) {
+                capturing = false;
+                marker.step(b);
+            }
+        }
+    }
+
+    /** Knuth-Morris-Pratt matcher for an ASCII marker; state carries across chunk boundaries. */
+    private static final class Marker {
+        private final byte[] p;
+        private final int[] fail;
+        private int state;
+
+        Marker(String s) {
+            p = s.getBytes(StandardCharsets.US_ASCII);
+            fail = new int[p.length];
+            for (int i = 1, k = 0; i < p.length; i++) {
+                while (k > 0 && p[i] != p[k]) k = fail[k - 1];
+                if (p[i] == p[k]) k++;
+                fail[i] = k;
+            }
+        }
+
+        boolean step(byte b) {
+            while (state > 0 && p[state] != b) state = fail[state - 1];
+            if (p[state] == b) state++;
+            if (state == p.length) { state = 0; return true; }
+            return false;
+        }
+    }
+
+    private static final class Capture {
+        private final int limit;
+        private byte[] buf = new byte[64];
+        private int len;
+
+        Capture(int limit) { this.limit = limit; }
+
+        void reset() { len = 0; }
+
+        boolean add(byte b) {
+            if (len == limit) return false;
+            if (len == buf.length) buf = Arrays.copyOf(buf, Math.min(limit, len * 2));
+            buf[len++] = b;
+            return true;
+        }
+
+        String string() { return new String(buf, 0, len, StandardCharsets.UTF_8); }
+    }
+}
@@ -0,0 +1,115 @@
+package com.ytchatbridge.client.bridge.ws;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire format between {@link WsBridgeProvider} and a relay, one JSON object per text frame.
+ * <pre>
+ * client → relay  {"sub":"VIDEO_ID"}
+ * relay → client  {"b":[[tsMs,role,"author","text"],...]}   role = ChatMessage.Role ordinal; [] is a keepalive
+ *                 [tsMs,role,"author","text",kind,"detail"] for paid and membership items, kind = ChatMessage.Kind ordinal
+ *                 {"title":"Channel"}                       optional, once per subscription
+ *                 {"err":"why"}                             relay-side source failure, shown as lastError
+ * </pre>
+ * Keys may be combined in one object; unknown keys are skipped so the relay can grow without breaking clients.
+ * Positional arrays keep a batch of a few hundred messages to roughly the size of their text.
+ */
+public final class ChatFrames {
+    private static final ChatMessage.Role[] ROLES = ChatMessage.Role.values();
+    private static final ChatMessage.Kind[] KINDS = ChatMessage.Kind.values();
+
+    // Output of the last decode()
+    public final List<ChatMessage> messages = new ArrayList<>();
+    public String title;
+    public String error;
+    public String sub; // video ID, in frames from a client
+
+    /** Throws JsonSyntaxException for malformed frames; fields of a failed decode are cleared. */
+    public void decode(CharSequence frame) {
+        messages.clear();
+        title = null;
+        error = null;
+        sub = null;
+        JsonReader r = new JsonReader(new StringReader(frame.toString()));
+        try {
+            r.beginObject();
+            while (r.hasNext()) {
+                switch (r.nextName()) {
+                    case "b" -> readBatch(r);
+                    case "title" -> title = r.nextString();
+                    case "err" -> error = r.nextString();
+                    case "sub" -> sub = r.nextString();
+                    default -> r.skipValue();
+                }
+            }
+            r.endObject();
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            messages.clear();
+            throw new JsonSyntaxException(e.getMessage(), e);
+        }
+    }
+
+    private void readBatch(JsonReader r) throws IOException {
+        r.beginArray();
+        while (r.hasNext()) {
+            r.beginArray();
+            long ts = r.nextLong();
+            int role = r.nextInt();
+            String author = r.nextString();
+            String text = r.nextString();
+            int kind = r.hasNext() ? r.nextInt() : 0;
+            String detail = r.hasNext() ? r.nextString() : null;
+            while (r.hasNext()) r.skipValue(); // room for extra fields later
+            r.endArray();
+            if (role < 0 || role >= ROLES.length) throw new MalformedJsonException("Unknown role " + role);
+            if (kind < 0 || kind >= KINDS.length) throw new MalformedJsonException("Unknown kind " + kind);
+            messages.add(new ChatMessage(author, text, ROLES[role], ts, KINDS[kind], detail));
+        }
+        r.endArray();
+    }
+
+    public static String batch(List<ChatMessage> batch) {
+        return write(w -> {
+            w.name("b").beginArray();
+            for (ChatMessage m : batch) {
+                w.beginArray().value(m.timestamp).value(m.role.ordinal()).value(m.displayName).value(m.message);
+                if (m.kind != ChatMessage.Kind.TEXT) w.value(m.kind.ordinal()).value(m.detail != null ? m.detail : "");
+                w.endArray();
+            }
+            w.endArray();
+        });
+    }
+
+    public static String subscribe(String videoId) { return write(w -> w.name("sub").value(videoId)); }
+
+    public static String title(String title) { return write(w -> w.name("title").value(title)); }
+
+    public static String error(String error) { return write(w -> w.name("err").value(error)); }
+
+    private interface Body {
+        void write(JsonWriter w) throws IOException;
+    }
+
+    private static String write(Body body) {
+        StringWriter out = new StringWriter(64);
+        try (JsonWriter w = new JsonWriter(out)) {
+            w.beginObject();
+            body.write(w);
+            w.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter does not throw
+        }
+        return out.toString();
+    }
+}
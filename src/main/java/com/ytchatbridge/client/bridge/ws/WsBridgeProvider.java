@@ -1,30 +1,230 @@
 package com.ytchatbridge.client.bridge.ws;
 
+import com.google.gson.JsonParseException;
 import com.ytchatbridge.client.bridge.ChatProvider;
 import com.ytchatbridge.client.bridge.ProviderStatus;
+import com.ytchatbridge.client.metrics.ProviderMetrics;
 import com.ytchatbridge.client.model.ChatMessage;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Receives chat pushed by a relay over one WebSocket instead of polling YouTube (see {@link ChatFrames} for the wire
+ * format). After connecting it subscribes to the video; each text frame carries a batch of messages. A dropped or
+ * silent connection is retried with full-jitter exponential backoff, reset once a connection delivers a frame.
+ */
 public class WsBridgeProvider implements ChatProvider {
+    private static final HttpClient SHARED_CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private static final ScheduledThreadPoolExecutor SHARED_EXEC = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "YTChat-WsBridge");
+        t.setDaemon(true);
+        return t;
+    });
+    static { SHARED_EXEC.setRemoveOnCancelPolicy(true); }
+
+    static final long BACKOFF_BASE_MS = 500;
+    static final long BACKOFF_MAX_MS = 30_000;
+    static final long IDLE_TIMEOUT_MS = 45_000; // relays send an empty batch at least every 15s
+
+    private final String endpoint;
     private final AtomicBoolean running = new AtomicBoolean(false);
+    private final ProviderMetrics metrics = new ProviderMetrics();
     private volatile Listener listener;
-    private volatile String endpoint = "ws://localhost:8787";
+    private volatile String videoId = "";
+    private volatile String channelTitle = "";
+    private volatile String lastError = "";
+    private volatile long lastLagMs = 0;
+    private volatile long lastFrameMs;
+    private volatile int attempts; // consecutive connects that delivered nothing
+    // Bumped per connect and when a connection is given up; callbacks from older sockets are ignored
+    private final AtomicInteger generation = new AtomicInteger();
+    private volatile WebSocket socket;
+    private volatile ScheduledFuture<?> pending;
+    private volatile ScheduledFuture<?> watchdog;
+
+    public WsBridgeProvider(String endpoint) {
+        this.endpoint = endpoint;
+    }
 
     @Override
     public void start(String videoIdOrUrl) {
-        running.set(true);
-        if (listener != null) listener.onInfo("WS provider not implemented yet.");
+        if (running.getAndSet(true)) return;
+        lastError = "";
+        attempts = 0;
+        videoId = videoIdOrUrl;
+        watchdog = SHARED_EXEC.scheduleWithFixedDelay(this::checkIdle, IDLE_TIMEOUT_MS / 3, IDLE_TIMEOUT_MS / 3, TimeUnit.MILLISECONDS);
+        SHARED_EXEC.execute(this::connect);
     }
 
     @Override
-    public void stop() { running.set(false); }
+    public void stop() {
+        if (!running.getAndSet(false)) return;
+        generation.incrementAndGet();
+        cancel(pending);
+        cancel(watchdog);
+        WebSocket ws = socket;
+        socket = null;
+        if (ws != null) ws.sendClose(WebSocket.NORMAL_CLOSURE, "").whenComplete((w, err) -> ws.abort());
+    }
 
     @Override
     public ProviderStatus status() {
-        return new ProviderStatus("wsBridge", running.get(), "", 0, 0, running.get()?"" : "stopped");
+        return new ProviderStatus("wsBridge", running.get(), channelTitle, (int) metrics.received.perMinute(), lastLagMs, lastError, metrics);
     }
 
     @Override
     public void setListener(Listener listener) { this.listener = listener; }
+
+    private void connect() {
+        if (!running.get()) return;
+        int gen = generation.incrementAndGet();
+        metrics.polls.incrementAndGet(); // connection attempts
+        long t0 = System.nanoTime();
+        URI uri;
+        try {
+            uri = URI.create(endpoint);
+        } catch (IllegalArgumentException e) {
+            fail("Bad wsEndpoint: " + endpoint);
+            running.set(false);
+            return;
+        }
+        SHARED_CLIENT.newWebSocketBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .buildAsync(uri, new FrameListener(gen))
+            .whenComplete((ws, err) -> {
+                if (err != null) {
+                    disconnected(gen, "connect: " + rootMessage(err));
+                    return;
+                }
+                metrics.pollRtt.recordNanos(System.nanoTime() - t0);
+                if (gen != generation.get() || !running.get()) {
+                    ws.abort();
+                    return;
+                }
+                socket = ws;
+                lastFrameMs = System.currentTimeMillis();
+                ws.sendText(ChatFrames.subscribe(videoId), true);
+            });
+    }
+
+    /**
+     * Gives up connection {@code gen} and schedules the next attempt. The watchdog, onError and onClose can all
+     * report the same connection; only the first to move the generation on reconnects. False if it was not first.
+     */
+    private boolean disconnected(int gen, String why) {
+        if (!running.get() || !generation.compareAndSet(gen, gen + 1)) return false;
+        socket = null;
+        metrics.errors.incrementAndGet();
+        lastError = why;
+        int n = attempts++;
+        // Full jitter: uniform in [0, min(max, base * 2^n)), so many clients dropped by one relay restart spread out
+        long cap = Math.min(BACKOFF_MAX_MS, BACKOFF_BASE_MS << Math.min(n, 16));
+        long delay = ThreadLocalRandom.current().nextLong(cap);
+        if (n == 0) info("Relay connection lost (" + why + "), reconnecting");
+        pending = SHARED_EXEC.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    // Catches half-open connections that never report a close
+    private void checkIdle() {
+        int gen = generation.get();
+        WebSocket ws = socket;
+        if (ws == null || System.currentTimeMillis() - lastFrameMs < IDLE_TIMEOUT_MS) return;
+        // Disconnect first: the abort's own onError/onClose then finds the generation moved on and does nothing
+        if (disconnected(gen, "no frames for " + IDLE_TIMEOUT_MS / 1000 + "s")) ws.abort();
+    }
+
+    private void onFrame(int gen, CharSequence text, ChatFrames frames) {
+        if (gen != generation.get()) return;
+        long now = System.currentTimeMillis();
+        lastFrameMs = now;
+        attempts = 0;
+        long t0 = System.nanoTime();
+        try {
+            frames.decode(text);
+        } catch (JsonParseException ex) {
+            metrics.parseErrors.incrementAndGet();
+            lastError = "frame: " + ex.getMessage();
+            return;
+        }
+        metrics.parseTime.recordNanos(System.nanoTime() - t0);
+        if (frames.title != null) channelTitle = frames.title;
+        if (frames.error != null) lastError = frames.error;
+        if (frames.messages.isEmpty()) return;
+        metrics.received.add(frames.messages.size());
+        lastLagMs = now - frames.messages.get(frames.messages.size() - 1).timestamp;
+        Listener l = listener;
+        if (l == null) return;
+        for (ChatMessage m : frames.messages) l.onMessage(m);
+    }
+
+    /** One per connection; the JDK calls it sequentially, one frame part at a time as we request them. */
+    private final class FrameListener implements WebSocket.Listener {
+        private final int gen;
+        private final StringBuilder text = new StringBuilder(4096);
+        private final ChatFrames frames = new ChatFrames();
+
+        FrameListener(int gen) { this.gen = gen; }
+
+        @Override
+        public void onOpen(WebSocket ws) {
+            ws.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            text.append(data);
+            if (last) {
+                onFrame(gen, text, frames);
+                text.setLength(0);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket ws, ByteBuffer data, boolean last) {
+            ws.request(1); // not part of the protocol
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            disconnected(gen, "closed " + statusCode + (reason.isEmpty() ? "" : " " + reason));
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            disconnected(gen, rootMessage(error));
+        }
+    }
+
+    private static String rootMessage(Throwable t) {
+        while (t instanceof CompletionException && t.getCause() != null) t = t.getCause();
+        return t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+    }
+
+    private static void cancel(ScheduledFuture<?> f) {
+        if (f != null) f.cancel(false);
+    }
+
+    private void fail(String msg) {
+        lastError = msg;
+        if (listener != null) listener.onError(msg);
+    }
+
+    private void info(String s) { if (listener != null) listener.onInfo(s); }
 }
@@ -13,13 +13,26 @@ import net.minecraft.text.Text;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 
+import com.ytchatbridge.client.bridge.innertube.ContinuationCheckpoint;
+import com.ytchatbridge.client.bridge.innertube.ReplayProvider;
 import com.ytchatbridge.client.config.ConfigManager;
 import com.ytchatbridge.client.service.BridgeServiceClient;
+import com.ytchatbridge.client.service.ChatSession;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.regex.PatternSyntaxException;
 
 public final class YTClientCommands {
+    private static final List<String> ROLES = List.of("owner", "moderator", "member", "user");
     // Deferred screen open to avoid being overwritten when chat GUI closes after command runs
     private static Screen PENDING_SCREEN;
     static {
@@ -45,19 +58,144 @@ public final class YTClientCommands {
                 }))
         );
 
-        // /ytchat stop
+        // /ytchat stop [video_or_url]
         root.then(ClientCommandManager.literal("stop").executes(ctx -> {
             BridgeServiceClient.get().stopSession();
             // Service already prints "[YTChat] stopped"; avoid duplicate.
             return 1;
-        }));
+        })
+            .then(ClientCommandManager.argument("video_or_url", StringArgumentType.greedyString())
+                .suggests(YTClientCommands::suggestActive)
+                .executes(ctx -> {
+                    String v = StringArgumentType.getString(ctx, "video_or_url");
+                    if (!BridgeServiceClient.get().stopSession(v)) { feedback(ctx, "No session for " + v); return 0; }
+                    return 1;
+                }))
+        );
 
-        // /ytchat status
+        // /ytchat status [video_or_url]
         root.then(ClientCommandManager.literal("status").executes(ctx -> {
-            var st = BridgeServiceClient.get().getStatus();
-            feedback(ctx, "Provider=" + st.providerName + " running=" + st.running + " mpm=" + st.msgsPerMin + " lag=" + st.lastLagMs + "ms err=" + st.lastError);
+            var svc = BridgeServiceClient.get();
+            var sessions = svc.sessions();
+            if (sessions.isEmpty()) feedback(ctx, "Provider=none running=false");
+            for (var s : sessions) feedback(ctx, statusLine(s));
+            feedback(ctx, "HUD queue=" + svc.queueDepth() + " history=" + svc.historySize());
+            feedback(ctx, "Suppressed: " + svc.suppressionTotals());
+            if (ConfigManager.get().data().logToFile) feedback(ctx, "Chat log: " + svc.chatLogStatus());
+            return 1;
+        })
+            .then(ClientCommandManager.argument("video_or_url", StringArgumentType.greedyString())
+                .suggests(YTClientCommands::suggestActive)
+                .executes(ctx -> {
+                    String v = StringArgumentType.getString(ctx, "video_or_url");
+                    var s = BridgeServiceClient.get().session(v);
+                    if (s == null) { feedback(ctx, "No session for " + v); return 0; }
+                    feedback(ctx, statusLine(s));
+                    return 1;
+                }))
+        );
+
+        // /ytchat stats [dump|reset]
+        root.then(ClientCommandManager.literal("stats").executes(ctx -> {
+            var svc = BridgeServiceClient.get();
+            for (var s : svc.sessions()) {
+                var m = s.provider().status().metrics;
+                if (m == null) continue;
+                feedback(ctx, "[" + s.videoId + "] " + m.rateLine());
+                feedback(ctx, "  poll rtt " + m.pollRtt.summary());
+                feedback(ctx, "  parse " + m.parseTime.summary());
+            }
+            var p = svc.metrics();
+            feedback(ctx, "e2e " + p.endToEnd.summary());
+            feedback(ctx, "queue " + p.queueDepth.summary());
+            feedback(ctx, "shown " + p.shown.perMinute() + "/min dropped " + p.dropped.perMinute() + "/min");
+            return 1;
+        })
+            .then(ClientCommandManager.literal("dump").executes(ctx -> {
+                BridgeServiceClient.get().dumpStats().whenComplete((file, err) -> MinecraftClient.getInstance().execute(() ->
+                    feedback(ctx, err == null ? "Stats written to " + file.getFileName() : "Stats dump failed: " + err.getMessage())));
+                return 1;
+            }))
+            .then(ClientCommandManager.literal("reset").executes(ctx -> {
+                BridgeServiceClient.get().resetStats();
+                feedback(ctx, "Latency and queue histograms reset");
+                return 1;
+            }))
+        );
+
+        // /ytchat record <video_or_url>
+        root.then(ClientCommandManager.literal("record")
+            .then(ClientCommandManager.argument("video_or_url", StringArgumentType.greedyString())
+                .suggests(YTClientCommands::suggestRecent)
+                .executes(ctx -> {
+                    String v = StringArgumentType.getString(ctx, "video_or_url");
+                    Path file = BridgeServiceClient.get().recordSession(v);
+                    if (file == null) { feedback(ctx, "Invalid video: " + v); return 0; }
+                    feedback(ctx, "Recording " + v + " to " + file.getFileName());
+                    return 1;
+                }))
+        );
+
+        // /ytchat resume [video_or_url]
+        root.then(ClientCommandManager.literal("resume").executes(ctx -> resume(ctx, ""))
+            .then(ClientCommandManager.argument("video_or_url", StringArgumentType.greedyString())
+                .suggests((c,b)->{ for (String id : BridgeServiceClient.get().checkpointedVideos()) b.suggest(id); return b.buildFuture(); })
+                .executes(ctx -> resume(ctx, StringArgumentType.getString(ctx, "video_or_url"))))
+        );
+
+        // /ytchat replay <file> [speed|max]
+        root.then(ClientCommandManager.literal("replay")
+            .then(ClientCommandManager.argument("file", StringArgumentType.string())
+                .suggests((c,b)->suggestRecordings(b))
+                .executes(ctx -> replay(ctx, "1"))
+                .then(ClientCommandManager.argument("speed", StringArgumentType.word())
+                    .suggests((c,b)->{ for (String sp : new String[]{"1","10","50","max"}) b.suggest(sp); return b.buildFuture(); })
+                    .executes(ctx -> replay(ctx, StringArgumentType.getString(ctx, "speed")))))
+        );
+
+        // /ytchat history [author|regex] [n]
+        root.then(ClientCommandManager.literal("history").executes(ctx -> showHistory(ctx, "", 10))
+            .then(ClientCommandManager.argument("query", StringArgumentType.string())
+                .executes(ctx -> {
+                    String q = StringArgumentType.getString(ctx, "query");
+                    // A bare number is the count, not a search
+                    if (q.matches("\\d{1,3}")) return showHistory(ctx, "", Math.max(1, Math.min(100, Integer.parseInt(q))));
+                    return showHistory(ctx, q, 10);
+                })
+                .then(ClientCommandManager.argument("n", IntegerArgumentType.integer(1, 100))
+                    .executes(ctx -> showHistory(ctx, StringArgumentType.getString(ctx, "query"), IntegerArgumentType.getInteger(ctx, "n")))))
+        );
+
+        // /ytchat stream <video> prefix <text> | color <#hex> | reset
+        var stream = ClientCommandManager.argument("video", StringArgumentType.word())
+            .suggests(YTClientCommands::suggestActive);
+        stream.then(ClientCommandManager.literal("prefix")
+            .then(ClientCommandManager.argument("text", StringArgumentType.greedyString())
+                .executes(ctx -> {
+                    String vid = StringArgumentType.getString(ctx, "video");
+                    String text = StringArgumentType.getString(ctx, "text");
+                    ConfigManager.get().update(d -> streamStyle(d, vid).prefix = text);
+                    feedback(ctx, "Prefix set for " + vid);
+                    return 1;
+                })));
+        stream.then(ClientCommandManager.literal("color")
+            .then(ClientCommandManager.argument("hex", StringArgumentType.word())
+                .suggests((c,b)->suggestHex(b))
+                .executes(ctx -> {
+                    String vid = StringArgumentType.getString(ctx, "video");
+                    String hex = StringArgumentType.getString(ctx, "hex");
+                    if (!hex.matches("#(?i)[0-9a-f]{6}")) { feedback(ctx, "Invalid hex"); return 0; }
+                    ConfigManager.get().update(d -> streamStyle(d, vid).color = hex);
+                    feedback(ctx, "Color set for " + vid);
+                    return 1;
+                })));
+        stream.then(ClientCommandManager.literal("reset").executes(ctx -> {
+            String vid = StringArgumentType.getString(ctx, "video");
+            ConfigManager.get().update(d -> d.streamStyles.remove(vid));
+            feedback(ctx, "Stream style reset for " + vid);
             return 1;
         }));
+        root.then(ClientCommandManager.literal("stream").then(stream));
 
         // /ytchat setcolor <role> <#hex>
         root.then(ClientCommandManager.literal("setcolor")
@@ -69,15 +207,15 @@ public final class YTClientCommands {
                         String role = StringArgumentType.getString(ctx, "role").toLowerCase(Locale.ROOT);
                         String hex = StringArgumentType.getString(ctx, "hex");
                         if (!hex.matches("#(?i)[0-9a-f]{6}")) { feedback(ctx, "Invalid hex"); return 0; }
-                        var data = ConfigManager.get().data();
-                        switch (role) {
-                            case "owner" -> data.defaultColors.owner = hex;
-                            case "moderator" -> data.defaultColors.moderater = hex;
-                            case "member" -> data.defaultColors.member = hex;
-                            case "user" -> data.defaultColors.user = hex;
-                            default -> { feedback(ctx, "Unknown role"); return 0; }
-                        }
-                        ConfigManager.get().save();
+                        if (!ROLES.contains(role)) { feedback(ctx, "Unknown role"); return 0; }
+                        ConfigManager.get().update(d -> {
+                            switch (role) {
+                                case "owner" -> d.defaultColors.owner = hex;
+                                case "moderator" -> d.defaultColors.moderater = hex;
+                                case "member" -> d.defaultColors.member = hex;
+                                default -> d.defaultColors.user = hex;
+                            }
+                        });
                         feedback(ctx, "Color updated");
                         return 1;
                     }))))
@@ -88,23 +226,28 @@ public final class YTClientCommands {
             .then(ClientCommandManager.argument("text", StringArgumentType.greedyString())
                 .executes(ctx -> {
                     String t = StringArgumentType.getString(ctx, "text");
-                    ConfigManager.get().data().prefix = t;
-                    ConfigManager.get().save();
+                    ConfigManager.get().update(d -> d.prefix = t);
                     feedback(ctx, "Prefix set");
                     return 1;
                 }))
         );
 
-        // /ytchat throttle <msgsPerMin>
+        // /ytchat throttle <msgsPerMin> | role <role> <msgsPerMin|unlimited|shared>
         root.then(ClientCommandManager.literal("throttle")
             .then(ClientCommandManager.argument("rate", IntegerArgumentType.integer(1, 5000))
                 .executes(ctx -> {
                     int r = IntegerArgumentType.getInteger(ctx, "rate");
-                    ConfigManager.get().data().globalThrottleMsgPerMin = r;
-                    ConfigManager.get().save();
+                    ConfigManager.get().update(d -> d.globalThrottleMsgPerMin = r);
                     feedback(ctx, "Throttle set to " + r + " msg/min");
                     return 1;
                 }))
+            .then(ClientCommandManager.literal("role")
+                .then(ClientCommandManager.argument("role", StringArgumentType.word())
+                    .suggests((c,b)->suggestRoles(b))
+                    .then(ClientCommandManager.argument("rate", IntegerArgumentType.integer(1, 5000))
+                        .executes(ctx -> setRoleThrottle(ctx, IntegerArgumentType.getInteger(ctx, "rate"))))
+                    .then(ClientCommandManager.literal("unlimited").executes(ctx -> setRoleThrottle(ctx, 0)))
+                    .then(ClientCommandManager.literal("shared").executes(ctx -> setRoleThrottle(ctx, -1)))))
         );
 
         // /ytchat config  (open GUI without needing ModMenu)
@@ -127,11 +270,8 @@ public final class YTClientCommands {
             .then(ClientCommandManager.argument("regex", StringArgumentType.greedyString())
                 .executes(ctx -> {
                     String re = StringArgumentType.getString(ctx, "regex");
-                    var data = ConfigManager.get().data();
-                    data.filters.add(re);
-                    ConfigManager.get().save();
-                    com.ytchatbridge.client.service.BridgeServiceClient.get().rebuildFilters();
-                    feedback(ctx, "Filter added (#" + (data.filters.size()-1) + ")");
+                    ConfigManager.get().update(d -> d.filters.add(re));
+                    feedback(ctx, "Filter added (#" + (ConfigManager.get().data().filters.size()-1) + ")");
                     return 1;
                 }))
         );
@@ -140,11 +280,8 @@ public final class YTClientCommands {
                 .suggests((c,b)->suggestFilterIds(b))
                 .executes(ctx -> {
                     int id = IntegerArgumentType.getInteger(ctx, "id");
-                    var data = ConfigManager.get().data();
-                    if (id < 0 || id >= data.filters.size()) { feedback(ctx, "Invalid id"); return 0; }
-                    data.filters.remove(id);
-                    ConfigManager.get().save();
-                    com.ytchatbridge.client.service.BridgeServiceClient.get().rebuildFilters();
+                    if (id < 0 || id >= ConfigManager.get().data().filters.size()) { feedback(ctx, "Invalid id"); return 0; }
+                    ConfigManager.get().update(d -> d.filters.remove(id));
                     feedback(ctx, "Filter removed");
                     return 1;
                 }))
@@ -165,7 +302,7 @@ public final class YTClientCommands {
     }
 
     private static java.util.concurrent.CompletableFuture<com.mojang.brigadier.suggestion.Suggestions> suggestRoles(SuggestionsBuilder b) {
-        for (String r : new String[]{"owner","moderator","member","user"}) b.suggest(r);
+        for (String r : ROLES) b.suggest(r);
         return b.buildFuture();
     }
     private static CompletableFuture<com.mojang.brigadier.suggestion.Suggestions> suggestHex(SuggestionsBuilder b) {
@@ -176,12 +313,100 @@ public final class YTClientCommands {
         for (String id : BridgeServiceClient.get().recentVideos()) b.suggest(id);
         return b.buildFuture();
     }
+    private static CompletableFuture<com.mojang.brigadier.suggestion.Suggestions> suggestActive(CommandContext<?> ctx, SuggestionsBuilder b) {
+        for (var s : BridgeServiceClient.get().sessions()) b.suggest(s.videoId);
+        return b.buildFuture();
+    }
     private static CompletableFuture<com.mojang.brigadier.suggestion.Suggestions> suggestFilterIds(SuggestionsBuilder b) {
         var list = ConfigManager.get().data().filters;
         for (int i=0;i<list.size();i++) b.suggest(Integer.toString(i));
         return b.buildFuture();
     }
 
+    private static int setRoleThrottle(CommandContext<?> ctx, int rate) {
+        String role = StringArgumentType.getString(ctx, "role").toLowerCase(Locale.ROOT);
+        if (!ROLES.contains(role)) { feedback(ctx, "Unknown role"); return 0; }
+        ConfigManager.get().update(d -> {
+            switch (role) {
+                case "owner" -> d.roleThrottle.owner = rate;
+                case "moderator" -> d.roleThrottle.moderator = rate;
+                case "member" -> d.roleThrottle.member = rate;
+                default -> d.roleThrottle.user = rate;
+            }
+        });
+        feedback(ctx, "Throttle for " + role + ": " + (rate == 0 ? "unlimited" : rate < 0 ? "shared global bucket" : rate + " msg/min"));
+        return 1;
+    }
+
+    private static int replay(CommandContext<?> ctx, String speedArg) {
+        double speed;
+        try {
+            speed = speedArg.equalsIgnoreCase("max") ? ReplayProvider.MAX_SPEED : Double.parseDouble(speedArg);
+        } catch (NumberFormatException e) {
+            speed = -1;
+        }
+        if (!(speed > 0)) { feedback(ctx, "Speed must be a positive number or max"); return 0; }
+        String name = StringArgumentType.getString(ctx, "file");
+        Path file = ConfigManager.get().recordingsDir().resolve(name);
+        if (!Files.isRegularFile(file)) { feedback(ctx, "No recording " + name); return 0; }
+        try {
+            BridgeServiceClient.get().replaySession(file, speed);
+        } catch (IOException e) {
+            feedback(ctx, "Replay failed: " + e.getMessage());
+            return 0;
+        }
+        return 1;
+    }
+
+    private static int resume(CommandContext<?> ctx, String video) {
+        ContinuationCheckpoint.State state;
+        try {
+            state = BridgeServiceClient.get().resumeSession(video);
+        } catch (IOException e) {
+            feedback(ctx, "Resume failed: " + e.getMessage());
+            return 0;
+        }
+        if (state == null) { feedback(ctx, video.isEmpty() ? "No checkpoint to resume" : "No checkpoint for " + video); return 0; }
+        long gapSec = Math.max(0, System.currentTimeMillis() - state.lastTsUsec() / 1000L) / 1000L;
+        feedback(ctx, "Resuming " + state.videoId() + ", fetching the last " + gapSec + "s of chat");
+        return 1;
+    }
+
+    private static CompletableFuture<com.mojang.brigadier.suggestion.Suggestions> suggestRecordings(SuggestionsBuilder b) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(ConfigManager.get().recordingsDir(), "*.ytrec.gz")) {
+            for (Path f : files) b.suggest(StringArgumentType.escapeIfRequired(f.getFileName().toString()));
+        } catch (IOException ignored) {
+            // no recordings yet
+        }
+        return b.buildFuture();
+    }
+
+    private static int showHistory(CommandContext<?> ctx, String query, int n) {
+        BridgeServiceClient.get().history(query, n).whenComplete((lines, err) -> MinecraftClient.getInstance().execute(() -> {
+            Throwable cause = err instanceof CompletionException && err.getCause() != null ? err.getCause() : err;
+            if (cause instanceof PatternSyntaxException) feedback(ctx, "Invalid regex");
+            else if (cause != null) feedback(ctx, "History search failed: " + cause.getMessage());
+            else if (lines.isEmpty()) feedback(ctx, "No matching messages");
+            else {
+                var hud = MinecraftClient.getInstance().inGameHud.getChatHud();
+                for (Text line : lines) hud.addMessage(line);
+            }
+        }));
+        return 1;
+    }
+
+    private static String statusLine(ChatSession s) {
+        var st = s.provider().status();
+        String authors = st.metrics != null ? st.metrics.authorCacheLine() : "";
+        String transfer = st.metrics != null ? st.metrics.transferLine() : "";
+        return "[" + s.videoId + "] Provider=" + st.providerName + " running=" + st.running + " mpm=" + st.msgsPerMin + " lag=" + st.lastLagMs + "ms"
+            + (authors.isEmpty() ? "" : " " + authors) + (transfer.isEmpty() ? "" : " " + transfer) + " err=" + st.lastError;
+    }
+
+    private static ConfigManager.StreamStyle streamStyle(ConfigManager.Data d, String vid) {
+        return d.streamStyles.computeIfAbsent(vid, k -> new ConfigManager.StreamStyle());
+    }
+
     private static void feedback(CommandContext<?> ctx, String s) {
         MinecraftClient.getInstance().inGameHud.getChatHud().addMessage(Text.literal("[YTChat] " + s));
     }
@@ -189,46 +414,88 @@ public final class YTClientCommands {
     // Build configuration screen (mirrors old ModMenu screen) – only call when cloth-config is present
     private static Screen buildConfigScreen(Screen parent) {
     var cfg = ConfigManager.get().data();
+    List<Consumer<ConfigManager.Data>> edits = new ArrayList<>(); // applied together in one update on save
     var builder = me.shedaniel.clothconfig2.api.ConfigBuilder.create()
         .setParentScreen(parent)
         .setTitle(Text.translatable("livechat2mc.config.title"));
     var eb = builder.entryBuilder();
     var general = builder.getOrCreateCategory(Text.literal("General"));
 
-    // Provider locked to innertube; selector removed.
+    general.addEntry(eb.startSelector(Text.translatable("livechat2mc.config.provider"), new String[]{"innertube", "wsBridge"}, cfg.provider)
+        .setTooltip(Text.literal("innertube polls YouTube directly; wsBridge receives chat pushed by a relay. Applies to sessions started afterwards"))
+        .setSaveConsumer(v -> edits.add(d -> d.provider = v))
+        .build());
+
+    general.addEntry(eb.startStrField(Text.translatable("livechat2mc.config.wsEndpoint"), cfg.wsEndpoint)
+        .setTooltip(Text.literal("Relay WebSocket URL used by the wsBridge provider"))
+        .setSaveConsumer(v -> edits.add(d -> d.wsEndpoint = v.trim()))
+        .build());
+
     general.addEntry(eb.startStrField(Text.translatable("livechat2mc.config.prefix"), cfg.prefix)
         .setTooltip(Text.literal("Use & color codes e.g. &a[YTChat]&r"))
-        .setSaveConsumer(v -> cfg.prefix = v)
+        .setSaveConsumer(v -> edits.add(d -> d.prefix = v))
         .build());
 
     general.addEntry(eb.startIntField(Text.translatable("livechat2mc.config.throttle"), cfg.globalThrottleMsgPerMin)
         .setMin(1).setMax(5000)
-        .setSaveConsumer(v -> cfg.globalThrottleMsgPerMin = v)
+        .setSaveConsumer(v -> edits.add(d -> d.globalThrottleMsgPerMin = v))
+        .build());
+
+    general.addEntry(eb.startIntField(Text.translatable("livechat2mc.config.hudLinesPerTick"), cfg.hudLinesPerTick)
+        .setMin(1).setMax(500)
+        .setSaveConsumer(v -> edits.add(d -> d.hudLinesPerTick = v))
+        .build());
+
+    general.addEntry(eb.startIntField(Text.translatable("livechat2mc.config.hudTickBudgetMicros"), cfg.hudTickBudgetMicros)
+        .setMin(0).setMax(50_000)
+        .setTooltip(Text.literal("Time spent adding chat lines per tick (µs); at least one line is always shown"))
+        .setSaveConsumer(v -> edits.add(d -> d.hudTickBudgetMicros = v))
+        .build());
+
+    general.addEntry(eb.startBooleanToggle(Text.translatable("livechat2mc.config.logToFile"), cfg.logToFile)
+        .setTooltip(Text.literal("Write every received message and whether it was shown to config/ytchat-logs"))
+        .setSaveConsumer(v -> edits.add(d -> d.logToFile = v))
+        .build());
+
+    general.addEntry(eb.startBooleanToggle(Text.translatable("livechat2mc.config.suppressionSummaries"), cfg.suppressionSummaries)
+        .setTooltip(Text.literal("Show one line summarising throttled, filtered and overflowed messages"))
+        .setSaveConsumer(v -> edits.add(d -> d.suppressionSummaries = v))
+        .build());
+
+    general.addEntry(eb.startIntField(Text.translatable("livechat2mc.config.suppressionIntervalSec"), cfg.suppressionIntervalSec)
+        .setMin(1).setMax(600)
+        .setSaveConsumer(v -> edits.add(d -> d.suppressionIntervalSec = v))
+        .build());
+
+    general.addEntry(eb.startIntField(Text.translatable("livechat2mc.config.suppressionSampleSize"), cfg.suppressionSampleSize)
+        .setMin(0).setMax(10)
+        .setTooltip(Text.literal("Randomly chosen dropped messages shown under each summary"))
+        .setSaveConsumer(v -> edits.add(d -> d.suppressionSampleSize = v))
         .build());
 
     var colors = builder.getOrCreateCategory(Text.translatable("livechat2mc.config.colors"));
     colors.addEntry(eb.startStrField(Text.translatable("livechat2mc.config.color.owner"), cfg.defaultColors.owner)
-        .setSaveConsumer(v -> cfg.defaultColors.owner = v).build());
+        .setSaveConsumer(v -> edits.add(d -> d.defaultColors.owner = v)).build());
     colors.addEntry(eb.startStrField(Text.translatable("livechat2mc.config.color.moderator"), cfg.defaultColors.moderater)
-        .setSaveConsumer(v -> cfg.defaultColors.moderater = v).build());
+        .setSaveConsumer(v -> edits.add(d -> d.defaultColors.moderater = v)).build());
     colors.addEntry(eb.startStrField(Text.translatable("livechat2mc.config.color.member"), cfg.defaultColors.member)
-        .setSaveConsumer(v -> cfg.defaultColors.member = v).build());
+        .setSaveConsumer(v -> edits.add(d -> d.defaultColors.member = v)).build());
     colors.addEntry(eb.startStrField(Text.translatable("livechat2mc.config.color.user"), cfg.defaultColors.user)
-        .setSaveConsumer(v -> cfg.defaultColors.user = v).build());
+        .setSaveConsumer(v -> edits.add(d -> d.defaultColors.user = v)).build());
 
     var filtersCsv = String.join(",", cfg.filters);
     colors.addEntry(eb.startStrField(Text.translatable("livechat2mc.config.filters"), filtersCsv)
         .setTooltip(Text.literal("Comma-separated regex list"))
-        .setSaveConsumer(v -> {
-            cfg.filters.clear();
+        .setSaveConsumer(v -> edits.add(d -> {
+            d.filters.clear();
             if (v != null && !v.isBlank()) {
-            for (String s : v.split(",")) cfg.filters.add(s.trim());
+            for (String s : v.split(",")) d.filters.add(s.trim());
             }
-        }).build());
+        })).build());
 
     builder.setSavingRunnable(() -> {
-        ConfigManager.get().save();
-        BridgeServiceClient.get().rebuildFilters();
+        ConfigManager.get().update(d -> edits.forEach(e -> e.accept(d)));
+        edits.clear();
     });
     return builder.build();
     }
@@ -5,17 +5,41 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.annotations.SerializedName;
 import net.fabricmc.loader.api.FabricLoader;
 
-import java.io.Reader;
-import java.io.Writer;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * Owns {@code config/ytchat.json}. Readers get the current {@link Data} snapshot through a volatile field and must
+ * not modify it; changes go through {@link #update}, which edits a copy, publishes it and notifies listeners.
+ * All file I/O runs on one background thread: saves are debounced and written to a temp file that is renamed over
+ * the config, and edits made to the file outside the game are picked up by a {@link WatchService} and published
+ * the same way.
+ */
 public final class ConfigManager {
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static final ConfigManager INSTANCE = new ConfigManager();
+    private static final String FILE_NAME = "ytchat.json";
+    private static final long SAVE_DELAY_MS = 500;
+    private static final long RELOAD_DELAY_MS = 200; // editors often write a file in several steps
 
     public static ConfigManager get() { return INSTANCE; }
 
@@ -27,6 +51,23 @@ public final class ConfigManager {
         public String user = "#E0E0E0";
     }
 
+    /**
+     * Per-role throttle lanes in msgs/min: 0 = bypass the throttle, -1 = share the global bucket,
+     * anything else = a dedicated bucket (reserved capacity that does not consume global tokens).
+     */
+    public static final class RoleThrottle {
+        public int owner = 0;
+        public int moderator = 0;
+        public int member = -1;
+        public int user = -1;
+    }
+
+    /** Per-stream overrides; null fields fall back to the global settings. */
+    public static final class StreamStyle {
+        public String prefix;
+        public String color;
+    }
+
     public static final class Data {
         public String provider = "innertube"; // or "wsBridge"
         public DefaultColors defaultColors = new DefaultColors();
@@ -34,46 +75,217 @@ public final class ConfigManager {
         public String language = "en_us";
         public int maxLineLength = 256;
         public int globalThrottleMsgPerMin = 120;
+        public RoleThrottle roleThrottle = new RoleThrottle();
+        public int hudLinesPerTick = 20; // max chat lines handed to the HUD per client tick
+        public int hudTickBudgetMicros = 2000; // time budget per tick for the same
+        public int hudQueueCapacity = 2000; // lines waiting beyond this are dropped
+        public boolean suppressionSummaries = true; // report dropped messages as one coalesced line
+        public int suppressionIntervalSec = 10;
+        public int suppressionSampleSize = 0; // also show up to 10 randomly chosen dropped messages per summary
+        public int historyCapacity = 100_000; // messages kept for /ytchat history (~150 bytes each, allocated up front; restart to apply)
         public List<String> filters = new ArrayList<>();
-        public boolean logToFile = false;
+        public boolean logToFile = false; // per-session logs of every message and its outcome, under config/ytchat-logs
         public String wsEndpoint = "ws://localhost:8787";
+        public Map<String, StreamStyle> streamStyles = new LinkedHashMap<>(); // keyed by video ID
     }
 
-    private Data data = new Data();
+    private volatile Data data = freeze(new Data());
+    private final List<Consumer<Data>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService io = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "YTChat-Config");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> pendingSave; // guarded by this
+    private ScheduledFuture<?> pendingReload; // guarded by this
+    private String onDisk; // JSON last written or loaded, to ignore our own file events; io thread only
+    private Thread watcher;
 
     private ConfigManager() {}
 
-    public synchronized void reload() {
+    /** Current settings. Shared and read without locking, so treat it as read-only; use {@link #update} to change. */
+    public Data data() { return data; }
+
+    /**
+     * Applies {@code edit} to a copy of the current settings, publishes the copy, notifies listeners on the calling
+     * thread and schedules a save.
+     */
+    public void update(Consumer<Data> edit) {
+        synchronized (this) {
+            Data next = copy(data);
+            edit.accept(next);
+            data = freeze(next);
+        }
+        notifyListeners();
+        save();
+    }
+
+    /** Called with each newly published snapshot, after commands, the config screen or a hot reload change it. */
+    public void addListener(Consumer<Data> listener) { listeners.add(listener); }
+
+    /**
+     * Loads the config (creating it with defaults if missing) on the calling thread, then starts watching the file
+     * for outside edits.
+     */
+    public void reload() {
         Path cfg = getConfigPath();
         try {
             if (Files.notExists(cfg)) {
-                save();
-                return;
-            }
-            try (Reader r = Files.newBufferedReader(cfg, StandardCharsets.UTF_8)) {
-                Data loaded = GSON.fromJson(r, Data.class);
-                if (loaded != null) data = loaded;
+                io.execute(this::write);
+            } else {
+                String json = Files.readString(cfg, StandardCharsets.UTF_8);
+                Data loaded = GSON.fromJson(json, Data.class);
+                if (loaded != null) {
+                    data = freeze(loaded);
+                    notifyListeners();
+                }
+                io.execute(() -> onDisk = json);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
+        startWatcher(cfg);
     }
 
+    /** Writes the current settings a moment from now, off the calling thread; calls in quick succession write once. */
     public synchronized void save() {
+        if (pendingSave != null) pendingSave.cancel(false);
+        pendingSave = io.schedule(this::write, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Writes any pending save now and waits up to {@code timeoutMs} for it; called when the client is stopping. */
+    public void flush(long timeoutMs) {
+        synchronized (this) {
+            if (pendingSave == null || !pendingSave.cancel(false)) return;
+            pendingSave = null;
+        }
+        try {
+            io.submit(this::write).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void write() {
+        String json = GSON.toJson(data);
+        if (json.equals(onDisk)) return;
         Path cfg = getConfigPath();
+        Path tmp = cfg.resolveSibling(FILE_NAME + ".tmp");
         try {
             Files.createDirectories(cfg.getParent());
-            try (Writer w = Files.newBufferedWriter(cfg, StandardCharsets.UTF_8)) {
-                GSON.toJson(data, w);
+            Files.writeString(tmp, json, StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, cfg, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, cfg, StandardCopyOption.REPLACE_EXISTING);
             }
-        } catch (Exception e) {
+            onDisk = json;
+        } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    public synchronized Data data() { return data; }
+    private void startWatcher(Path cfg) {
+        if (watcher != null) return;
+        try {
+            Path dir = cfg.getParent();
+            Files.createDirectories(dir);
+            WatchService ws = dir.getFileSystem().newWatchService();
+            dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watcher = new Thread(() -> watch(ws), "YTChat-ConfigWatch");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException e) {
+            e.printStackTrace(); // no hot reload; everything else still works
+        }
+    }
+
+    private void watch(WatchService ws) {
+        try (ws) {
+            while (true) {
+                WatchKey key = ws.take();
+                for (WatchEvent<?> ev : key.pollEvents()) {
+                    if (ev.context() instanceof Path p && p.toString().equals(FILE_NAME)) scheduleReload();
+                }
+                if (!key.reset()) return; // config directory is gone
+            }
+        } catch (InterruptedException | IOException ignored) {
+        }
+    }
+
+    private synchronized void scheduleReload() {
+        if (pendingReload != null) pendingReload.cancel(false);
+        pendingReload = io.schedule(this::reloadChanged, RELOAD_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Publishes the file's contents if they differ from what we last wrote or read; keeps the old settings if invalid. */
+    private void reloadChanged() {
+        try {
+            String json = Files.readString(getConfigPath(), StandardCharsets.UTF_8);
+            if (json.equals(onDisk)) return;
+            Data loaded = GSON.fromJson(json, Data.class);
+            if (loaded == null) return;
+            onDisk = json;
+            synchronized (this) {
+                data = freeze(loaded);
+            }
+            System.out.println("[YTChat] Reloaded " + FILE_NAME);
+            notifyListeners();
+        } catch (Exception e) {
+            System.out.println("[YTChat] Ignoring invalid " + FILE_NAME + ": " + e.getMessage());
+        }
+    }
+
+    private void notifyListeners() {
+        Data d = data;
+        for (Consumer<Data> l : listeners) {
+            try {
+                l.accept(d);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static Data copy(Data d) {
+        return GSON.fromJson(GSON.toJsonTree(d), Data.class);
+    }
+
+    /** Fills in sections missing from the JSON and makes the collections unmodifiable, so stray writes fail loudly. */
+    private static Data freeze(Data d) {
+        if (d.defaultColors == null) d.defaultColors = new DefaultColors();
+        if (d.roleThrottle == null) d.roleThrottle = new RoleThrottle();
+        d.filters = d.filters == null ? List.of() : List.copyOf(d.filters);
+        d.streamStyles = d.streamStyles == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(d.streamStyles));
+        return d;
+    }
+
+    /** Directory for per-session chat logs ({@code logToFile}). */
+    public Path logDir() {
+        return FabricLoader.getInstance().getConfigDir().resolve("ytchat-logs");
+    }
+
+    /** Directory for {@code /ytchat stats dump} snapshots. */
+    public Path statsDir() {
+        return FabricLoader.getInstance().getConfigDir().resolve("ytchat-stats");
+    }
+
+    /** Directory for {@code /ytchat record} captures. */
+    public Path recordingsDir() {
+        return FabricLoader.getInstance().getConfigDir().resolve("ytchat-recordings");
+    }
+
+    /** Cached Innertube API key and context, so sessions can skip the watch page. */
+    public Path bootstrapCacheFile() {
+        return FabricLoader.getInstance().getConfigDir().resolve("ytchat-bootstrap.json");
+    }
+
+    /** One checkpoint file per video, for {@code /ytchat resume}. */
+    public Path checkpointDir() {
+        return FabricLoader.getInstance().getConfigDir().resolve("ytchat-checkpoints");
+    }
 
     private Path getConfigPath() {
-        return FabricLoader.getInstance().getConfigDir().resolve("ytchat.json");
+        return FabricLoader.getInstance().getConfigDir().resolve(FILE_NAME);
     }
 }
@@ -0,0 +1,119 @@
+package com.ytchatbridge.client.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear histogram with fixed memory: 32 linear sub-buckets per power of two, so any recorded value is
+ * reported within about 3% of its true value. Recording is a few bit operations and one atomic increment per bucket,
+ * count, sum and (rarely) max. Values are microseconds for timings, or plain counts.
+ */
+public final class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int MAX_EXP = 40; // ~12.7 days in µs; larger values land in the last bucket
+    private static final int BUCKETS = (MAX_EXP - SUB_BITS + 2) * SUB;
+
+    private final boolean micros;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /** @param micros whether values are durations in microseconds (affects formatting only) */
+    public Histogram(boolean micros) {
+        this.micros = micros;
+    }
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(index(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long m = max.get();
+        while (value > m && !max.compareAndSet(m, value)) m = max.get();
+    }
+
+    public void recordNanos(long nanos) { record(nanos / 1000); }
+
+    public long count() { return count.get(); }
+    public long max() { return max.get(); }
+    public double mean() { long n = count.get(); return n == 0 ? 0 : (double) sum.get() / n; }
+
+    /** Upper bound of the bucket holding the {@code q} quantile (0..1); 0 when empty. */
+    public long percentile(double q) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /** e.g. "p50 120ms p90 180ms p99 410ms max 1.2s (n=532)" */
+    public String summary() {
+        if (count() == 0) return "n=0";
+        return "p50 " + format(percentile(0.50)) + " p90 " + format(percentile(0.90)) + " p99 " + format(percentile(0.99))
+                + " max " + format(max()) + " (n=" + count() + ")";
+    }
+
+    /** Summary statistics plus the non-empty buckets as [upperBound, count] pairs. */
+    public JsonObject toJson() {
+        JsonObject o = new JsonObject();
+        o.addProperty("unit", micros ? "us" : "count");
+        o.addProperty("count", count());
+        o.addProperty("mean", mean());
+        o.addProperty("p50", percentile(0.50));
+        o.addProperty("p90", percentile(0.90));
+        o.addProperty("p99", percentile(0.99));
+        o.addProperty("p999", percentile(0.999));
+        o.addProperty("max", max());
+        JsonArray buckets = new JsonArray();
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = counts.get(i);
+            if (c == 0) continue;
+            JsonArray b = new JsonArray();
+            b.add(upperBound(i));
+            b.add(c);
+            buckets.add(b);
+        }
+        o.add("buckets", buckets);
+        return o;
+    }
+
+    private String format(long v) {
+        if (!micros) return Long.toString(v);
+        if (v < 1_000) return v + "µs";
+        if (v < 10_000) return String.format(Locale.ROOT, "%.1fms", v / 1e3);
+        if (v < 1_000_000) return (v / 1_000) + "ms";
+        return String.format(Locale.ROOT, "%.1fs", v / 1e6);
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        if (exp > MAX_EXP) return BUCKETS - 1;
+        return (exp - SUB_BITS + 1) * SUB + (int) ((v >>> (exp - SUB_BITS)) & (SUB - 1));
+    }
+
+    static long upperBound(int i) {
+        if (i < SUB) return i;
+        int exp = i / SUB + SUB_BITS - 1;
+        long sub = i % SUB;
+        return ((SUB + sub + 1) << (exp - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,29 @@
+package com.ytchatbridge.client.metrics;
+
+import com.google.gson.JsonObject;
+
+/** Measurements after the providers: delivery latency, HUD backlog and what was shown or dropped. */
+public final class PipelineMetrics {
+    /** Message timestampUsec to the tick that hands it to the ChatHud; includes any clock skew to YouTube. */
+    public final Histogram endToEnd = new Histogram(true);
+    /** HUD queue depth sampled once per client tick. */
+    public final Histogram queueDepth = new Histogram(false);
+    public final RateWindow shown = new RateWindow();
+    public final RateWindow dropped = new RateWindow();
+
+    public void reset() {
+        endToEnd.reset();
+        queueDepth.reset();
+    }
+
+    public JsonObject toJson() {
+        JsonObject o = new JsonObject();
+        o.add("endToEnd", endToEnd.toJson());
+        o.add("queueDepth", queueDepth.toJson());
+        o.addProperty("shownPerMin", shown.perMinute());
+        o.addProperty("shownTotal", shown.total());
+        o.addProperty("droppedPerMin", dropped.perMinute());
+        o.addProperty("droppedTotal", dropped.total());
+        return o;
+    }
+}
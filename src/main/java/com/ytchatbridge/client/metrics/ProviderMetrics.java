@@ -0,0 +1,79 @@
+package com.ytchatbridge.client.metrics;
+
+import com.google.gson.JsonObject;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Per-provider poll measurements; providers write, status/stats commands read. */
+public final class ProviderMetrics {
+    /** Request sent until response headers arrive. */
+    public final Histogram pollRtt = new Histogram(true);
+    /** Reading and parsing the body; the body is parsed as it streams in, so this includes its transfer. */
+    public final Histogram parseTime = new Histogram(true);
+    public final RateWindow received = new RateWindow();
+    public final AtomicLong polls = new AtomicLong();
+    public final AtomicLong errors = new AtomicLong();
+    public final AtomicLong parseErrors = new AtomicLong();
+    /** Chat items dropped because their ID was already delivered, mirrored from the parser. */
+    public final AtomicLong duplicates = new AtomicLong();
+    /** Author cache counters, mirrored from the parser after each response: a hit is a message whose badges or name were skipped. */
+    public final AtomicLong authorLookups = new AtomicLong();
+    public final AtomicLong authorHits = new AtomicLong();
+    /** Response bodies as received (possibly compressed) and after decoding, summed over {@link #bodies}. */
+    public final AtomicLong wireBytes = new AtomicLong();
+    public final AtomicLong decodedBytes = new AtomicLong();
+    public final AtomicLong bodies = new AtomicLong();
+
+    public void recordBody(long wire, long decoded) {
+        wireBytes.addAndGet(wire);
+        decodedBytes.addAndGet(decoded);
+        bodies.incrementAndGet();
+    }
+
+    /** e.g. "rx 532/min (8.9/s 10s) polls=310 errors=2 parseErrors=0 dup=14" */
+    public String rateLine() {
+        return "rx " + received.perMinute() + "/min (" + String.format(Locale.ROOT, "%.1f", received.perSecond(10))
+                + "/s 10s) polls=" + polls.get() + " errors=" + errors.get() + " parseErrors=" + parseErrors.get() + " dup=" + duplicates.get();
+    }
+
+    /** e.g. "authors 11% hit (12034 lookups)"; empty until a message with a channel ID was parsed. */
+    public String authorCacheLine() {
+        long n = authorLookups.get();
+        if (n == 0) return "";
+        return "authors " + (authorHits.get() * 100 / n) + "% hit (" + n + " lookups)";
+    }
+
+    /** e.g. "wire 2.1KB/poll (14% of 15.3KB) rtt p50 82ms p99 240ms"; empty before the first response. */
+    public String transferLine() {
+        long n = bodies.get();
+        if (n == 0) return "";
+        long wire = wireBytes.get(), decoded = decodedBytes.get();
+        return String.format(Locale.ROOT, "wire %.1fKB/poll (%d%% of %.1fKB) rtt p50 %dms p99 %dms",
+                wire / 1024.0 / n, decoded == 0 ? 100 : wire * 100 / decoded, decoded / 1024.0 / n,
+                pollRtt.percentile(0.5) / 1000, pollRtt.percentile(0.99) / 1000);
+    }
+
+    public void reset() {
+        pollRtt.reset();
+        parseTime.reset();
+    }
+
+    public JsonObject toJson() {
+        JsonObject o = new JsonObject();
+        o.add("pollRtt", pollRtt.toJson());
+        o.add("parseTime", parseTime.toJson());
+        o.addProperty("receivedPerMin", received.perMinute());
+        o.addProperty("receivedTotal", received.total());
+        o.addProperty("polls", polls.get());
+        o.addProperty("errors", errors.get());
+        o.addProperty("parseErrors", parseErrors.get());
+        o.addProperty("duplicates", duplicates.get());
+        o.addProperty("authorLookups", authorLookups.get());
+        o.addProperty("authorHits", authorHits.get());
+        o.addProperty("wireBytes", wireBytes.get());
+        o.addProperty("decodedBytes", decodedBytes.get());
+        o.addProperty("bodies", bodies.get());
+        return o;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ytchatbridge.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding one-minute event counter made of 60 one-second slots, each tagged with the second it belongs to.
+ * Unlike a tumbling window it never reads 0 right after a reset: {@link #perMinute} always covers the current partial
+ * second plus the 59 before it. An increment racing a slot's reuse at a second boundary may be lost.
+ */
+public final class RateWindow {
+    private static final int SLOTS = 60;
+
+    private final AtomicLongArray counts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray seconds = new AtomicLongArray(SLOTS);
+    private final AtomicLong total = new AtomicLong();
+
+    public void add(long n) {
+        if (n <= 0) return;
+        long sec = System.currentTimeMillis() / 1000;
+        int i = (int) (sec % SLOTS);
+        long tag = seconds.get(i);
+        if (tag != sec && seconds.compareAndSet(i, tag, sec)) counts.set(i, 0);
+        counts.addAndGet(i, n);
+        total.addAndGet(n);
+    }
+
+    /** Events in the last minute. */
+    public long perMinute() { return sum(SLOTS); }
+
+    /** Average rate over the last {@code windowSec} seconds (1..60), per second. */
+    public double perSecond(int windowSec) {
+        int w = Math.max(1, Math.min(SLOTS, windowSec));
+        return sum(w) / (double) w;
+    }
+
+    public long total() { return total.get(); }
+
+    // Includes the current partial second, so new events show up immediately
+    private long sum(int windowSec) {
+        long now = System.currentTimeMillis() / 1000;
+        long n = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            long age = now - seconds.get(i);
+            if (age >= 0 && age < windowSec) n += counts.get(i);
+        }
+        return n;
+    }
+}
@@ -5,13 +5,24 @@ public final class ChatMessage {
     public final String message;
     public final Role role;
     public final long timestamp;
+    public final Kind kind;
+    public final String detail; // PAID: amount, e.g. "$5.00"; MEMBERSHIP: e.g. "New member" or "Member for 6 months"; else null
 
     public ChatMessage(String displayName, String message, Role role, long timestamp) {
+        this(displayName, message, role, timestamp, Kind.TEXT, null);
+    }
+
+    public ChatMessage(String displayName, String message, Role role, long timestamp, Kind kind, String detail) {
         this.displayName = displayName;
         this.message = message;
         this.role = role;
         this.timestamp = timestamp;
+        this.kind = kind;
+        this.detail = detail;
     }
 
     public enum Role { OWNER, MODERATOR, MEMBER, USER }
+
+    /** Which chat item a message came from; PAID and MEMBERSHIP may have an empty message. */
+    public enum Kind { TEXT, PAID, MEMBERSHIP }
 }
@@ -1,184 +1,380 @@
 package com.ytchatbridge.client.service;
 
 import com.ytchatbridge.client.bridge.ChatProvider;
-import com.ytchatbridge.client.bridge.ProviderStatus;
+import com.ytchatbridge.client.bridge.innertube.BootstrapCache;
+import com.ytchatbridge.client.bridge.innertube.ContinuationCheckpoint;
 import com.ytchatbridge.client.bridge.innertube.InnertubeProvider;
+import com.ytchatbridge.client.bridge.innertube.ReplayProvider;
+import com.ytchatbridge.client.bridge.innertube.ResponseRecorder;
+import com.ytchatbridge.client.bridge.ws.WsBridgeProvider;
 import com.ytchatbridge.client.config.ConfigManager;
+import com.ytchatbridge.client.metrics.PipelineMetrics;
 import com.ytchatbridge.client.model.ChatMessage;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
 
 import net.minecraft.client.MinecraftClient;
+import net.minecraft.text.MutableText;
 import net.minecraft.text.Text;
-import net.minecraft.text.Style;
-import net.minecraft.text.TextColor;
 import net.minecraft.util.Formatting;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.*;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
-public final class BridgeServiceClient implements ChatProvider.Listener {
+public final class BridgeServiceClient {
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final DateTimeFormatter CLOCK = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
     private static final BridgeServiceClient INSTANCE = new BridgeServiceClient();
     public static BridgeServiceClient get() { return INSTANCE; }
 
-    private final ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "YTChat-Bridge"); t.setDaemon(true); return t;
-    });
-
     private final ArrayDeque<String> recentVideoIds = new ArrayDeque<>(20);
-    private final List<Pattern> compiledFilters = new ArrayList<>();
-    private volatile ChatProvider provider;
-    private volatile int tokens;
-    private volatile long bucketTs = System.currentTimeMillis();
-    private volatile long sessionStartTs = 0L; // to filter old backlog messages
+    private volatile FilterEngine filters = FilterEngine.EMPTY; // immutable snapshot, swapped on rebuild
+    private volatile RenderProfile profile; // same for prefix/role styles
+    // Session registry keyed by video ID; providers share one HTTP client and poll scheduler
+    private final Map<String, ChatSession> sessions = new ConcurrentHashMap<>();
+    private final HudDeliveryQueue delivery = new HudDeliveryQueue();
+    private final SuppressionTracker suppressed = new SuppressionTracker();
+    private final PipelineMetrics metrics = new PipelineMetrics();
+    private final ChatLogWriter chatLog = new ChatLogWriter(ConfigManager.get().logDir());
+    private final BootstrapCache bootstrap = new BootstrapCache(ConfigManager.get().bootstrapCacheFile());
+    private final MessageHistory history = new MessageHistory(Math.max(1, ConfigManager.get().data().historyCapacity));
+    private long lastSummaryTs = System.currentTimeMillis(); // client thread only
+    private final TokenBucket globalBucket = new TokenBucket();
+    private final TokenBucket[] roleBuckets = new TokenBucket[ChatMessage.Role.values().length];
 
     private BridgeServiceClient() {
+        for (int i = 0; i < roleBuckets.length; i++) roleBuckets[i] = new TokenBucket();
         rebuildFilters();
-        exec.scheduleAtFixedRate(this::refill, 1, 1, TimeUnit.SECONDS);
+        rebuildRenderProfile();
+        // Commands, the config screen and edits to ytchat.json all publish a new snapshot
+        ConfigManager.get().addListener(cfg -> {
+            rebuildFilters();
+            rebuildRenderProfile();
+        });
     }
 
-    private void refill() {
-        int perMin = Math.max(1, ConfigManager.get().data().globalThrottleMsgPerMin);
-        int perSec = Math.max(1, perMin / 60);
-        tokens = Math.min(tokens + perSec, perMin);
+    /** Starts mirroring a stream alongside any running ones; restarts it if that video is already active. */
+    public synchronized void startSession(String videoOrUrl) {
+        String vid = extractId(videoOrUrl);
+        if (vid.isEmpty()) return;
+        var cfg = ConfigManager.get().data();
+        if ("wsBridge".equals(cfg.provider)) {
+            startSession(vid, new WsBridgeProvider(cfg.wsEndpoint));
+            return;
+        }
+        InnertubeProvider provider = new InnertubeProvider(bootstrap);
+        provider.setCheckpoint(checkpointFile(vid));
+        startSession(vid, provider);
     }
 
-    public synchronized void startSession(String videoOrUrl) {
-        stopSession();
-    // Provider locked to innertube for now (wsBridge disabled)
-    provider = new InnertubeProvider();
-        provider.setListener(this);
-        provider.start(videoOrUrl);
-    sessionStartTs = System.currentTimeMillis();
+    /** Like {@link #startSession(String)}, also saving every raw poll response under {@code config/ytchat-recordings}. */
+    public synchronized Path recordSession(String videoOrUrl) {
+        String vid = extractId(videoOrUrl);
+        if (vid.isEmpty()) return null;
+        Path file = ConfigManager.get().recordingsDir().resolve(vid + "-" + LocalDateTime.now().format(FILE_STAMP) + ".ytrec.gz");
+        InnertubeProvider provider = new InnertubeProvider(bootstrap);
+        provider.setRecorder(new ResponseRecorder(file));
+        provider.setCheckpoint(checkpointFile(vid));
+        startSession(vid, provider);
+        return file;
+    }
+
+    /**
+     * Continues a stream from its checkpoint, fetching only the messages since the last one shown. With an empty
+     * argument, picks the most recently checkpointed stream. Returns the checkpoint used, or null if there is none.
+     */
+    public synchronized ContinuationCheckpoint.State resumeSession(String videoOrUrl) throws IOException {
         String vid = extractId(videoOrUrl);
-        if (!vid.isEmpty()) {
-            if (recentVideoIds.contains(vid)) recentVideoIds.remove(vid);
-            recentVideoIds.addFirst(vid);
-            while (recentVideoIds.size() > 20) recentVideoIds.removeLast();
+        ContinuationCheckpoint.State state = vid.isEmpty() ? newestCheckpoint() : ContinuationCheckpoint.read(checkpointFile(vid));
+        if (state == null) return null;
+        InnertubeProvider provider = new InnertubeProvider(bootstrap);
+        provider.setCheckpoint(checkpointFile(state.videoId()));
+        provider.resumeFrom(state);
+        // Gap messages predate this call; only what precedes the checkpoint counts as backlog
+        startSession(state.videoId(), provider, state.lastTsUsec() / 1000L);
+        return state;
+    }
+
+    /** Video IDs with a checkpoint, for suggestions. */
+    public List<String> checkpointedVideos() {
+        List<String> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(ConfigManager.get().checkpointDir(), "*.ckpt")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                ids.add(name.substring(0, name.length() - ".ckpt".length()));
+            }
+        } catch (IOException ignored) {
+            // no checkpoints yet
         }
+        return ids;
+    }
+
+    private ContinuationCheckpoint.State newestCheckpoint() throws IOException {
+        ContinuationCheckpoint.State newest = null;
+        for (String vid : checkpointedVideos()) {
+            ContinuationCheckpoint.State s = ContinuationCheckpoint.read(checkpointFile(vid));
+            if (s != null && (newest == null || s.savedAtMs() > newest.savedAtMs())) newest = s;
+        }
+        return newest;
+    }
+
+    private static Path checkpointFile(String vid) {
+        return ConfigManager.get().checkpointDir().resolve(vid + ".ckpt");
+    }
+
+    /**
+     * Feeds a recording through the normal pipeline in place of a live session for the same video.
+     * {@code speed} scales the recorded poll timing; {@link ReplayProvider#MAX_SPEED} plays it back to back.
+     */
+    public synchronized void replaySession(Path file, double speed) throws IOException {
+        startSession(ReplayProvider.recordedVideoId(file), new ReplayProvider(file, speed));
+    }
+
+    private void startSession(String vid, ChatProvider provider) {
+        startSession(vid, provider, System.currentTimeMillis());
+    }
+
+    private void startSession(String vid, ChatProvider provider, long startTs) {
+        ChatSession old = sessions.remove(vid);
+        if (old != null) {
+            old.provider.stop();
+            chatLog.endSession(vid); // the restarted session gets a new file
+        }
+        ChatSession session = new ChatSession(this, vid, provider, startTs);
+        sessions.put(vid, session);
+        session.provider.setListener(session);
+        session.provider.start(vid);
+        if (recentVideoIds.contains(vid)) recentVideoIds.remove(vid);
+        recentVideoIds.addFirst(vid);
+        while (recentVideoIds.size() > 20) recentVideoIds.removeLast();
     infoToHud("[YTChat] started " + vid);
     }
 
+    /** Stops every session. */
     public synchronized void stopSession() {
-    if (provider != null) { provider.stop(); provider = null; infoToHud("[YTChat] stopped"); }
+        for (String vid : new ArrayList<>(sessions.keySet())) stopSession(vid);
     }
 
-    public ProviderStatus getStatus() {
-        return provider == null ? new ProviderStatus("none", false, "", 0, 0, "") : provider.status();
+    /** Stops one session; returns false when no session matches. */
+    public synchronized boolean stopSession(String videoOrUrl) {
+        String vid = extractId(videoOrUrl);
+        ChatSession s = sessions.remove(vid);
+        if (s == null) return false;
+        s.provider.stop();
+        chatLog.endSession(vid);
+        infoToHud("[YTChat] stopped " + vid);
+        return true;
     }
 
+    public ChatSession session(String videoOrUrl) { return sessions.get(extractId(videoOrUrl)); }
+
+    public List<ChatSession> sessions() { return new ArrayList<>(sessions.values()); }
+
     public List<String> recentVideos() { return new ArrayList<>(recentVideoIds); }
 
-    @Override
-    public void onMessage(ChatMessage msg) {
+    void onMessage(ChatSession session, ChatMessage msg) {
+        var cfg = ConfigManager.get().data();
     // Skip backlog: only show messages timestamped after session start (allow small clock skew)
-    if (sessionStartTs > 0 && msg.timestamp + 5000 < sessionStartTs) return;
-        if (!permit()) return;
-        if (isFiltered(msg.message)) return;
-        String sanitized = sanitize(msg.message);
-        if (sanitized.isEmpty()) return;
+    if (msg.timestamp + 5000 < session.startTs) { outcome(cfg, session, msg, ChatLogWriter.Outcome.BACKLOG); return; }
+        if (isFiltered(msg.message)) {
+            suppressed.record(SuppressionTracker.Reason.FILTER, msg, 0);
+            outcome(cfg, session, msg, ChatLogWriter.Outcome.FILTER);
+            return;
+        }
+        history.record(msg); // before the throttle, so /ytchat history can show what the HUD skipped
+        if (!permit(cfg, msg.role)) {
+            suppressed.record(SuppressionTracker.Reason.THROTTLE, msg, cfg.suppressionSampleSize);
+            outcome(cfg, session, msg, ChatLogWriter.Outcome.THROTTLE);
+            return;
+        }
+        String body = MessageSanitizer.sanitize(msg.message, cfg.maxLineLength);
+        if (body.isEmpty() && msg.kind == ChatMessage.Kind.TEXT) { outcome(cfg, session, msg, ChatLogWriter.Outcome.FILTER); return; }
+        Text finalText = profile.line(session.videoId, msg, body);
+        if (!delivery.offer(finalText, msg.timestamp, Math.max(1, cfg.hudQueueCapacity))) {
+            suppressed.record(SuppressionTracker.Reason.OVERFLOW, msg, cfg.suppressionSampleSize);
+            outcome(cfg, session, msg, ChatLogWriter.Outcome.OVERFLOW);
+            return;
+        }
+        outcome(cfg, session, msg, ChatLogWriter.Outcome.SHOWN);
+    }
+
+    private void outcome(ConfigManager.Data cfg, ChatSession session, ChatMessage msg, ChatLogWriter.Outcome outcome) {
+        if (outcome == ChatLogWriter.Outcome.SHOWN) metrics.shown.add(1);
+        else if (outcome != ChatLogWriter.Outcome.BACKLOG) metrics.dropped.add(1);
+        if (cfg.logToFile) chatLog.record(session.videoId, msg, outcome);
+    }
+
+    /** Flushes and compresses chat logs; called when the client is stopping. */
+    public void shutdown() {
+        chatLog.shutdown(3000);
+    }
+
+    /** e.g. "written=1200 pending=0 dropped=0" */
+    public String chatLogStatus() {
+        return "written=" + chatLog.written() + " pending=" + chatLog.pending() + " dropped=" + chatLog.dropped();
+    }
+
+    /** END_CLIENT_TICK hook: moves queued lines into the ChatHud within the configured per-tick budget. */
+    public void drainToHud(MinecraftClient client) {
+        if (client.inGameHud == null) return;
         var cfg = ConfigManager.get().data();
+        var hud = client.inGameHud.getChatHud();
+        metrics.queueDepth.record(delivery.depth());
+        delivery.drain(hud, Math.max(1, cfg.hudLinesPerTick), Math.max(0, cfg.hudTickBudgetMicros) * 1000L, metrics.endToEnd);
+
+        long now = System.currentTimeMillis();
+        if (now - lastSummaryTs < Math.max(1, cfg.suppressionIntervalSec) * 1000L) return;
+        lastSummaryTs = now;
+        List<ChatMessage> sampled = new ArrayList<>();
+        String summary = suppressed.drainSummary(sampled);
+        if (summary == null || !cfg.suppressionSummaries) return;
+        hud.addMessage(Text.literal("[YTChat] " + summary).formatted(Formatting.GOLD));
+        for (ChatMessage m : sampled) {
+            hud.addMessage(Text.literal("  ~ " + m.displayName + ": " + MessageSanitizer.sanitize(m.message, 80)).formatted(Formatting.DARK_GRAY));
+        }
+    }
+
+    public int queueDepth() { return delivery.depth(); }
+
+    /** Totals since launch, e.g. "throttle=12 filter=3 overflow=0 | owner=0 moderator=0 member=2 user=13". */
+    public String suppressionTotals() {
+        StringBuilder sb = new StringBuilder();
+        for (var reason : SuppressionTracker.Reason.values()) {
+            sb.append(reason.name().toLowerCase(Locale.ROOT)).append('=').append(suppressed.total(reason)).append(' ');
+        }
+        sb.append('|');
+        for (var role : ChatMessage.Role.values()) {
+            sb.append(' ').append(role.name().toLowerCase(Locale.ROOT)).append('=').append(suppressed.total(role));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Last {@code n} stored messages matching an author name or regex (empty = any), rendered oldest first. Searched
+     * off the client thread; fails with PatternSyntaxException for an invalid regex, or
+     * {@link MessageHistory.SearchTimeoutException} for one that takes too long.
+     */
+    public CompletableFuture<List<Text>> history(String query, int n) {
+        RenderProfile p = profile;
+        int maxLineLength = ConfigManager.get().data().maxLineLength;
+        return CompletableFuture.supplyAsync(() -> {
+            List<Text> lines = new ArrayList<>();
+            for (ChatMessage m : history.search(query, n)) {
+                MutableText time = Text.literal(CLOCK.format(Instant.ofEpochMilli(m.timestamp)) + " ").formatted(Formatting.DARK_GRAY);
+                lines.add(p.line(Text.empty().append(time), m, MessageSanitizer.sanitize(m.message, maxLineLength)));
+            }
+            return lines;
+        });
+    }
 
-    String prefixRaw = cfg.prefix == null ? "[YTChat]" : cfg.prefix;
-    // Support color codes in prefix: &<0-9a-fk-or>
-    Text prefixText = parseColoredPrefix(prefixRaw + " ");
+    public int historySize() { return history.size(); }
 
-        int rgb = colorFor(msg.role, cfg);
-        Text name = Text.literal(msg.displayName).setStyle(Style.EMPTY.withColor(TextColor.fromRgb(rgb)));
-        Text colon = Text.literal(": ").formatted(Formatting.GRAY);
-        String body = sanitized.length() > cfg.maxLineLength ? sanitized.substring(0, cfg.maxLineLength) + "…" : sanitized;
-        Text message = Text.literal(body);
+    public PipelineMetrics metrics() { return metrics; }
 
-        Text finalText = Text.empty().append(prefixText).append(name).append(colon).append(message);
-        MinecraftClient.getInstance().inGameHud.getChatHud().addMessage(finalText);
+    /** Clears latency and depth histograms of the pipeline and every running session; counters keep running. */
+    public void resetStats() {
+        metrics.reset();
+        for (ChatSession s : sessions.values()) {
+            var m = s.provider().status().metrics;
+            if (m != null) m.reset();
+        }
     }
 
-    @Override public void onInfo(String info) { infoToHud("[YTChat] " + info); }
-    @Override public void onError(String error) { infoToHud("[YTChat][Error] " + error); }
+    /** Snapshot of every metric, for offline analysis. */
+    public JsonObject statsJson() {
+        JsonObject root = new JsonObject();
+        root.addProperty("generatedAt", Instant.now().toString());
+        JsonObject sessionsJson = new JsonObject();
+        for (ChatSession s : sessions.values()) {
+            var st = s.provider().status();
+            JsonObject o = st.metrics != null ? st.metrics.toJson() : new JsonObject();
+            o.addProperty("provider", st.providerName);
+            o.addProperty("running", st.running);
+            o.addProperty("lastError", st.lastError);
+            sessionsJson.add(s.videoId, o);
+        }
+        root.add("sessions", sessionsJson);
+        root.add("pipeline", metrics.toJson());
+        JsonObject sup = new JsonObject();
+        for (var reason : SuppressionTracker.Reason.values()) sup.addProperty(reason.name().toLowerCase(Locale.ROOT), suppressed.total(reason));
+        root.add("suppressed", sup);
+        JsonObject log = new JsonObject();
+        log.addProperty("written", chatLog.written());
+        log.addProperty("pending", chatLog.pending());
+        log.addProperty("dropped", chatLog.dropped());
+        root.add("chatLog", log);
+        return root;
+    }
+
+    /** Writes {@link #statsJson()} under config/ytchat-stats off the client thread; completes with the file. */
+    public CompletableFuture<Path> dumpStats() {
+        JsonObject snapshot = statsJson();
+        Path dir = ConfigManager.get().statsDir();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Files.createDirectories(dir);
+                Path file = dir.resolve("stats-" + LocalDateTime.now().format(FILE_STAMP) + ".json");
+                Files.writeString(file, new GsonBuilder().setPrettyPrinting().create().toJson(snapshot), StandardCharsets.UTF_8);
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    void onInfo(ChatSession session, String info) { infoToHud("[YTChat] " + tag(session) + info); }
+    void onError(ChatSession session, String error) { infoToHud("[YTChat][Error] " + tag(session) + error); }
+
+    // Only label provider notices once several streams share the HUD
+    private String tag(ChatSession session) { return sessions.size() > 1 ? "[" + session.videoId + "] " : ""; }
 
     private void infoToHud(String s) {
-        MinecraftClient.getInstance().inGameHud.getChatHud().addMessage(Text.literal(s).formatted(Formatting.DARK_GRAY));
+        delivery.offerNotice(Text.literal(s).formatted(Formatting.DARK_GRAY));
     }
 
-    private boolean permit() {
-        int perMin = Math.max(1, ConfigManager.get().data().globalThrottleMsgPerMin);
-        long now = System.currentTimeMillis();
-        if (now - bucketTs > 60_000) { tokens = perMin; bucketTs = now; }
-        if (tokens <= 0) return false;
-        tokens--;
-        return true;
+    private boolean permit(ConfigManager.Data cfg, ChatMessage.Role role) {
+        int lane = laneRate(role, cfg.roleThrottle);
+        if (lane == 0) return true; // bypass
+        if (lane > 0) return roleBuckets[role.ordinal()].tryAcquire(lane);
+        return globalBucket.tryAcquire(Math.max(1, cfg.globalThrottleMsgPerMin));
+    }
+
+    private static int laneRate(ChatMessage.Role role, ConfigManager.RoleThrottle rt) {
+        if (rt == null) return -1;
+        return switch (role) {
+            case OWNER -> rt.owner;
+            case MODERATOR -> rt.moderator;
+            case MEMBER -> rt.member;
+            default -> rt.user;
+        };
     }
 
     private boolean isFiltered(String s) {
-        for (Pattern p : compiledFilters) if (p.matcher(s).find()) return true;
-        return false;
+        return filters.matches(s);
     }
 
     public void rebuildFilters() {
-        compiledFilters.clear();
-        for (String f : ConfigManager.get().data().filters) {
-            try { compiledFilters.add(Pattern.compile(f)); } catch (Exception ignored) {}
-        }
+        filters = FilterEngine.compile(List.copyOf(ConfigManager.get().data().filters));
     }
 
-    private static int colorFor(ChatMessage.Role role, ConfigManager.Data cfg) {
-        try {
-            String hex = switch (role) {
-                case OWNER -> cfg.defaultColors.owner;
-                case MODERATOR -> cfg.defaultColors.moderater;
-                case MEMBER -> cfg.defaultColors.member;
-                default -> cfg.defaultColors.user;
-            };
-            if (hex != null && hex.startsWith("#")) {
-                return Integer.parseInt(hex.substring(1), 16);
-            }
-        } catch (Exception ignored) {}
-        return 0xE0E0E0;
-    }
-
-    private static String sanitize(String s) {
-        return s == null ? "" : s.replaceAll("§.", "").replaceAll("\\p{Cntrl}", "").trim();
-    }
-
-    private static net.minecraft.text.MutableText parseColoredPrefix(String raw) {
-        net.minecraft.text.MutableText out = Text.empty();
-        Formatting current = Formatting.GRAY;
-        StringBuilder acc = new StringBuilder();
-        for (int i=0;i<raw.length();i++) {
-            char c = raw.charAt(i);
-            if (c == '&' && i+1 < raw.length()) {
-                // flush existing
-                if (acc.length()>0) { out.append(Text.literal(acc.toString()).formatted(current)); acc.setLength(0); }
-                char code = Character.toLowerCase(raw.charAt(++i));
-                Formatting f = formattingFromCode(code);
-                if (f != null) current = f; else acc.append('&').append(code); // unknown -> keep literal
-            } else acc.append(c);
-        }
-        if (acc.length()>0) out.append(Text.literal(acc.toString()).formatted(current));
-        return out;
-    }
-    private static Formatting formattingFromCode(char c) {
-        return switch (c) {
-            case '0' -> Formatting.BLACK;
-            case '1' -> Formatting.DARK_BLUE;
-            case '2' -> Formatting.DARK_GREEN;
-            case '3' -> Formatting.DARK_AQUA;
-            case '4' -> Formatting.DARK_RED;
-            case '5' -> Formatting.DARK_PURPLE;
-            case '6' -> Formatting.GOLD;
-            case '7' -> Formatting.GRAY;
-            case '8' -> Formatting.DARK_GRAY;
-            case '9' -> Formatting.BLUE;
-            case 'a' -> Formatting.GREEN;
-            case 'b' -> Formatting.AQUA;
-            case 'c' -> Formatting.RED;
-            case 'd' -> Formatting.LIGHT_PURPLE;
-            case 'e' -> Formatting.YELLOW;
-            case 'f' -> Formatting.WHITE;
-            case 'r' -> Formatting.RESET;
-            default -> null;
-        };
+    /** Runs whenever the config changes; see the listener registered in the constructor. */
+    public void rebuildRenderProfile() {
+        profile = RenderProfile.from(ConfigManager.get().data());
     }
 
     private static String extractId(String v) {
@@ -0,0 +1,264 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only chat log behind {@code logToFile}. Callers only enqueue onto a lock-free queue; one daemon thread
+ * batches records into a plain {@code <video>-<start>.log} per session, flushing every {@link #BATCH} records or
+ * {@link #FLUSH_NANOS}, and gzips each file when it reaches {@link #ROTATE_BYTES} or the session ends.
+ * <p>
+ * Lines are tab-separated: timestamp, outcome, role, author, text (tabs, newlines and backslashes escaped).
+ * If the disk falls behind by {@link #MAX_PENDING} records, further records are counted and dropped instead of
+ * growing the heap.
+ */
+final class ChatLogWriter {
+    enum Outcome { SHOWN, BACKLOG, FILTER, THROTTLE, OVERFLOW }
+
+    static final int MAX_PENDING = 100_000;
+    static final int BATCH = 512;
+    static final long FLUSH_NANOS = 1_000_000_000L;
+    static final long ROTATE_BYTES = 32L << 20;
+    private static final DateTimeFormatter FILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final class Entry {
+        final String videoId;
+        final ChatMessage msg; // null for an end-of-session marker
+        final Outcome outcome;
+
+        Entry(String videoId, ChatMessage msg, Outcome outcome) {
+            this.videoId = videoId;
+            this.msg = msg;
+            this.outcome = outcome;
+        }
+    }
+
+    private final Path dir;
+    private final ConcurrentLinkedQueue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile Thread thread;
+    private volatile boolean closing;
+
+    // Writer thread only
+    private final Map<String, SessionFile> files = new HashMap<>();
+    private final StringBuilder line = new StringBuilder(512);
+
+    ChatLogWriter(Path dir) {
+        this.dir = dir;
+    }
+
+    void record(String videoId, ChatMessage msg, Outcome outcome) {
+        if (pending.incrementAndGet() > MAX_PENDING) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        queue.offer(new Entry(videoId, msg, outcome));
+        Thread t = ensureStarted();
+        if (pending.get() >= BATCH) LockSupport.unpark(t);
+    }
+
+    /** Closes and compresses the session's file once everything queued before this call is written. */
+    void endSession(String videoId) {
+        if (thread == null) return; // nothing was ever logged
+        pending.incrementAndGet();
+        queue.offer(new Entry(videoId, null, null));
+        LockSupport.unpark(thread);
+    }
+
+    /** Writes out what is queued and compresses open files; waits up to {@code timeoutMs}. */
+    void shutdown(long timeoutMs) {
+        Thread t = thread;
+        if (t == null) return;
+        closing = true;
+        LockSupport.unpark(t);
+        try {
+            t.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    long written() { return written.get(); }
+    long dropped() { return dropped.get(); }
+    int pending() { return pending.get(); }
+
+    private Thread ensureStarted() {
+        Thread t = thread;
+        if (t != null) return t;
+        synchronized (this) {
+            if (thread == null) {
+                t = new Thread(this::run, "YTChat-ChatLog");
+                t.setDaemon(true);
+                t.start();
+                thread = t;
+            }
+            return thread;
+        }
+    }
+
+    private void run() {
+        try {
+            Files.createDirectories(dir);
+            compressLeftovers();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        while (true) {
+            if (!closing && pending.get() < BATCH) LockSupport.parkNanos(this, FLUSH_NANOS);
+            boolean done = closing; // read before draining so nothing queued ahead of shutdown is missed
+            Entry e;
+            while ((e = queue.poll()) != null) {
+                pending.decrementAndGet();
+                if (e.msg == null) close(files.remove(e.videoId));
+                else write(e);
+            }
+            for (SessionFile f : files.values()) f.flush();
+            if (done) {
+                for (SessionFile f : files.values()) close(f);
+                files.clear();
+                return;
+            }
+        }
+    }
+
+    private void write(Entry e) {
+        SessionFile f = files.get(e.videoId);
+        if (f == null) {
+            f = new SessionFile(e.videoId);
+            files.put(e.videoId, f);
+        }
+        ChatMessage m = e.msg;
+        line.setLength(0);
+        line.append(Instant.ofEpochMilli(m.timestamp)).append('\t')
+            .append(e.outcome.name().toLowerCase(Locale.ROOT)).append('\t')
+            .append(m.role.name().toLowerCase(Locale.ROOT)).append('\t');
+        appendEscaped(m.displayName);
+        line.append('\t');
+        appendEscaped(m.message);
+        line.append('\n');
+        f.append(line.toString().getBytes(StandardCharsets.UTF_8));
+        written.incrementAndGet();
+    }
+
+    private void appendEscaped(String s) {
+        if (s == null) return;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\t' -> line.append("\\t");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\\' -> line.append("\\\\");
+                default -> line.append(c);
+            }
+        }
+    }
+
+    private void close(SessionFile f) {
+        if (f != null) f.closeAndCompress();
+    }
+
+    /** Plain .log files left behind by a crash are compressed on the next start. */
+    private void compressLeftovers() throws IOException {
+        try (DirectoryStream<Path> stray = Files.newDirectoryStream(dir, "*.log")) {
+            for (Path p : stray) compress(p);
+        }
+    }
+
+    private static void compress(Path src) {
+        String name = src.getFileName().toString();
+        Path dst = src.resolveSibling(name + ".gz");
+        try (InputStream in = Files.newInputStream(src);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(dst), 64 * 1024)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return; // keep the plain file
+        }
+        try {
+            Files.delete(src);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** One session's current part; a new part starts after each rotation. */
+    private final class SessionFile {
+        private final String base;
+        private int part;
+        private Path path;
+        private OutputStream out;
+        private long bytes;
+        private boolean failed;
+
+        SessionFile(String videoId) {
+            base = videoId.replaceAll("[^A-Za-z0-9_-]", "_") + "-" + LocalDateTime.now().format(FILE_STAMP);
+        }
+
+        void append(byte[] b) {
+            if (failed) return;
+            try {
+                if (out == null) open();
+                out.write(b);
+                bytes += b.length;
+                if (bytes >= ROTATE_BYTES) closeAndCompress();
+            } catch (IOException e) {
+                // Stop logging this session rather than retrying on every message
+                e.printStackTrace();
+                failed = true;
+            }
+        }
+
+        void flush() {
+            if (out == null) return;
+            try {
+                out.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        void closeAndCompress() {
+            if (out == null) return;
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+            compress(path);
+        }
+
+        private void open() throws IOException {
+            do {
+                part++;
+                path = dir.resolve(base + "-" + part + ".log");
+            } while (Files.exists(path.resolveSibling(path.getFileName() + ".gz"))); // session restarted within the same second
+            out = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+            bytes = 0;
+        }
+    }
+}
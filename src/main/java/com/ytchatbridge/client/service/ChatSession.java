@@ -0,0 +1,25 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.bridge.ChatProvider;
+import com.ytchatbridge.client.model.ChatMessage;
+
+/** One mirrored live chat: its provider plus the per-stream state the bridge needs. */
+public final class ChatSession implements ChatProvider.Listener {
+    public final String videoId;
+    final ChatProvider provider;
+    final long startTs; // to filter old backlog messages
+    private final BridgeServiceClient owner;
+
+    ChatSession(BridgeServiceClient owner, String videoId, ChatProvider provider, long startTs) {
+        this.owner = owner;
+        this.videoId = videoId;
+        this.provider = provider;
+        this.startTs = startTs;
+    }
+
+    public ChatProvider provider() { return provider; }
+
+    @Override public void onMessage(ChatMessage msg) { owner.onMessage(this, msg); }
+    @Override public void onInfo(String info) { owner.onInfo(this, info); }
+    @Override public void onError(String error) { owner.onError(this, error); }
+}
@@ -0,0 +1,388 @@
+package com.ytchatbridge.client.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable compiled form of {@code ConfigManager.Data.filters}.
+ * Entries without regex metacharacters go into one Aho-Corasick automaton. So does the longest literal every match of
+ * a regex must contain ({@link #requiredLiteral}), and that regex only runs when the scan saw it: with a typical
+ * block list almost no regex runs at all, and the cost per message is one scan however long the list is.
+ * Regexes without such a literal go into one combined alternation. Matching is the same as running
+ * {@code Pattern.compile(f).matcher(s).find()} for every entry; invalid regexes are ignored as before.
+ */
+final class FilterEngine {
+    static final FilterEngine EMPTY = new FilterEngine(false, null, new Pattern[0], null, new Pattern[0]);
+    private static final int LITERAL = -1; // automaton output of a plain entry: the message matches
+
+    private final boolean matchAll; // an empty entry matches every message
+    private final Automaton literals; // plain entries and required literals
+    private final Pattern[] guarded; // regex i runs only when the automaton reported i
+    private final Pattern combined;
+    private final Pattern[] standalone; // regexes that cannot be merged safely (backrefs, named groups, \Q, comments)
+
+    private FilterEngine(boolean matchAll, Automaton literals, Pattern[] guarded, Pattern combined, Pattern[] standalone) {
+        this.matchAll = matchAll;
+        this.literals = literals;
+        this.guarded = guarded;
+        this.combined = combined;
+        this.standalone = standalone;
+    }
+
+    static FilterEngine compile(List<String> filters) {
+        boolean matchAll = false;
+        List<String> lits = new ArrayList<>();
+        List<Integer> litIds = new ArrayList<>();
+        List<Boolean> litFolded = new ArrayList<>();
+        List<Pattern> guarded = new ArrayList<>();
+        List<String> mergeable = new ArrayList<>();
+        List<Pattern> standalone = new ArrayList<>();
+        for (String f : filters) {
+            if (f == null) continue;
+            if (f.isEmpty()) { matchAll = true; continue; }
+            if (isLiteral(f)) { lits.add(f); litIds.add(LITERAL); litFolded.add(false); continue; }
+            Pattern p;
+            try { p = Pattern.compile(f); } catch (PatternSyntaxException ignored) { continue; }
+            String required = requiredLiteral(f);
+            if (required != null) {
+                lits.add(required);
+                litIds.add(guarded.size());
+                litFolded.add(f.startsWith("(?i)"));
+                guarded.add(p);
+            } else if (mergeable(f)) mergeable.add(f);
+            else standalone.add(p);
+        }
+        Pattern combined = null;
+        if (mergeable.size() == 1) combined = Pattern.compile(mergeable.get(0));
+        else if (!mergeable.isEmpty()) {
+            StringBuilder sb = new StringBuilder();
+            for (String f : mergeable) {
+                if (sb.length() > 0) sb.append('|');
+                sb.append("(?:").append(f).append(')');
+            }
+            try {
+                combined = Pattern.compile(sb.toString());
+            } catch (PatternSyntaxException e) {
+                for (String f : mergeable) standalone.add(Pattern.compile(f));
+            }
+        }
+        return new FilterEngine(matchAll, lits.isEmpty() ? null : Automaton.build(lits, litIds, litFolded),
+                guarded.toArray(new Pattern[0]), combined, standalone.toArray(new Pattern[0]));
+    }
+
+    boolean matches(String s) {
+        if (matchAll) return true;
+        long[] seen = guarded.length == 0 ? null : new long[(guarded.length + 63) >>> 6];
+        if (literals != null && literals.find(s, seen)) return true;
+        if (seen != null) {
+            for (int w = 0; w < seen.length; w++) {
+                for (long bits = seen[w]; bits != 0; bits &= bits - 1) {
+                    if (guarded[(w << 6) + Long.numberOfTrailingZeros(bits)].matcher(s).find()) return true;
+                }
+            }
+        }
+        if (combined != null && combined.matcher(s).find()) return true;
+        for (Pattern p : standalone) if (p.matcher(s).find()) return true;
+        return false;
+    }
+
+    /**
+     * The longest run of characters that every match of {@code f} contains, or null if none of at least two can be
+     * proven. Only the top level of the pattern is read: groups, classes, escapes other than quoted punctuation, and
+     * any quantified character end a run. A top-level alternation, inline flags other than a leading (?i), and \Q
+     * give up. With the leading (?i) the run is matched ignoring ASCII case, as Pattern does without (?u).
+     */
+    static String requiredLiteral(String f) {
+        int i = 0;
+        if (f.startsWith("(?i)")) i = 4;
+        for (int j = i; (j = f.indexOf("(?", j)) >= 0; j += 2) {
+            if (j + 2 < f.length() && "idmsuxU-".indexOf(f.charAt(j + 2)) >= 0) return null;
+        }
+        String best = null;
+        StringBuilder run = new StringBuilder();
+        while (i < f.length()) {
+            char c = f.charAt(i);
+            int atomEnd;
+            boolean literal = false;
+            switch (c) {
+                case '|' -> { return null; }
+                case '(' -> atomEnd = skipGroup(f, i);
+                case '[' -> atomEnd = skipClass(f, i);
+                case '.', '^', '$' -> atomEnd = i + 1;
+                case '\\' -> {
+                    if (i + 1 >= f.length()) return null;
+                    char e = f.charAt(i + 1);
+                    if (e == 'Q') return null;
+                    if (!Character.isLetterOrDigit(e)) {
+                        literal = true;
+                        c = e;
+                        atomEnd = i + 2;
+                    } else atomEnd = skipEscape(f, i + 1);
+                }
+                default -> {
+                    literal = true;
+                    atomEnd = i + 1;
+                }
+            }
+            if (atomEnd < 0) return null;
+            int next = skipQuantifier(f, atomEnd);
+            if (literal && next == atomEnd) run.append(c);
+            else {
+                if (literal && Character.isLowSurrogate(c) && run.length() > 0 && Character.isHighSurrogate(run.charAt(run.length() - 1))) {
+                    run.setLength(run.length() - 1); // the quantifier applies to the whole code point
+                }
+                best = longer(best, run);
+                run.setLength(0);
+            }
+            i = next;
+        }
+        best = longer(best, run);
+        return best != null && best.length() >= 2 ? best : null;
+    }
+
+    private static String longer(String best, StringBuilder run) {
+        return best == null || run.length() >= best.length() ? (run.length() == 0 ? best : run.toString()) : best;
+    }
+
+    /** Index after the group opened at {@code i}, honouring escapes and classes inside it. */
+    private static int skipGroup(String f, int i) {
+        int depth = 0;
+        while (i < f.length()) {
+            char c = f.charAt(i);
+            if (c == '\\') i += 2;
+            else if (c == '[') {
+                i = skipClass(f, i);
+                if (i < 0) return -1;
+            } else {
+                if (c == '(') depth++;
+                else if (c == ')' && --depth == 0) return i + 1;
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /** Index after the character class opened at {@code i}, which may nest; -1 where Java's rules get subtle. */
+    private static int skipClass(String f, int i) {
+        int depth = 0;
+        while (i < f.length()) {
+            char c = f.charAt(i);
+            if (c == '\\') {
+                if (i + 1 < f.length() && f.charAt(i + 1) == 'Q') return -1;
+                i += 2;
+            } else if (c == '[') {
+                depth++;
+                i++;
+                if (i < f.length() && f.charAt(i) == '^') i++;
+                if (i < f.length() && f.charAt(i) == ']') return -1; // leading ']' literal or error: don't guess
+            } else {
+                if (c == ']' && --depth == 0) return i + 1;
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    /** Index after the escape whose letter or digit is at {@code i}. */
+    private static int skipEscape(String f, int i) {
+        char e = f.charAt(i++);
+        switch (e) {
+            case 'p', 'P', 'N', 'x' -> {
+                if (i < f.length() && f.charAt(i) == '{') {
+                    int close = f.indexOf('}', i);
+                    return close < 0 ? -1 : close + 1;
+                }
+                return e == 'x' ? i + 2 : i + 1;
+            }
+            case 'u' -> { return i + 4; }
+            case 'c' -> { return i + 1; }
+            case 'k' -> {
+                int close = f.indexOf('>', i);
+                return close < 0 ? -1 : close + 1;
+            }
+            case '0' -> {
+                for (int n = 0; n < 3 && i < f.length() && f.charAt(i) >= '0' && f.charAt(i) <= '7'; n++) i++;
+                return i;
+            }
+            default -> {
+                if (e >= '1' && e <= '9') while (i < f.length() && Character.isDigit(f.charAt(i))) i++; // backreference
+                return i;
+            }
+        }
+    }
+
+    /** Index after the quantifier (with its lazy or possessive suffix) at {@code i}, or {@code i} if there is none. */
+    private static int skipQuantifier(String f, int i) {
+        if (i >= f.length()) return i;
+        char c = f.charAt(i);
+        if (c == '?' || c == '*' || c == '+') i++;
+        else if (c == '{') {
+            int close = f.indexOf('}', i);
+            if (close < 0) return i;
+            i = close + 1;
+        } else return i;
+        if (i < f.length() && (f.charAt(i) == '?' || f.charAt(i) == '+')) i++;
+        return i;
+    }
+
+    private static String foldAscii(String s) {
+        char[] cs = s.toCharArray();
+        for (int i = 0; i < cs.length; i++) if (cs[i] >= 'A' && cs[i] <= 'Z') cs[i] += 32;
+        return new String(cs);
+    }
+
+    private static boolean isLiteral(String f) {
+        for (int i = 0; i < f.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(f.charAt(i)) >= 0) return false;
+        }
+        return true;
+    }
+
+    /** Wrapping in (?:...) and joining with | keeps the meaning unless the entry relies on its own group numbering or quoting. */
+    private static boolean mergeable(String f) {
+        if (f.contains("\\Q") || f.contains("#") || f.contains("\\k<")) return false;
+        for (int i = 0; i + 1 < f.length(); i++) {
+            char c = f.charAt(i);
+            if (c == '\\') {
+                if (Character.isDigit(f.charAt(i + 1))) return false; // backreference
+                i++;
+            } else if (c == '(' && f.startsWith("?<", i + 1) && i + 3 < f.length()
+                    && f.charAt(i + 3) != '=' && f.charAt(i + 3) != '!') {
+                return false; // named group
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Aho-Corasick automaton with sparse, sorted edges over ASCII-folded text, so one scan serves both the (?i)
+     * literals and the case-sensitive ones; a case-sensitive word is compared exactly where the scan found it.
+     * Each node lists the words ending there or at one of its suffixes.
+     */
+    private static final class Automaton {
+        private final int[] edgeStart; // edges of node n are [edgeStart[n], edgeStart[n + 1])
+        private final char[] edgeChar;
+        private final int[] edgeTarget;
+        private final int[] fail;
+        private final int[][] out; // word indices, null where no word ends
+        private final String[] words; // as written
+        private final int[] ids; // LITERAL for a plain entry, otherwise the index of a guarded regex
+        private final boolean[] folded; // word of a (?i) regex: the folded match is enough
+        private final int[] rootAscii = new int[128]; // most steps happen at the root; skip the search there
+
+        private Automaton(int[] edgeStart, char[] edgeChar, int[] edgeTarget, int[] fail, int[][] out,
+                          String[] words, int[] ids, boolean[] folded) {
+            this.edgeStart = edgeStart;
+            this.edgeChar = edgeChar;
+            this.edgeTarget = edgeTarget;
+            this.fail = fail;
+            this.out = out;
+            this.words = words;
+            this.ids = ids;
+            this.folded = folded;
+            Arrays.fill(rootAscii, -1);
+            for (int e = edgeStart[0]; e < edgeStart[1] && edgeChar[e] < 128; e++) rootAscii[edgeChar[e]] = edgeTarget[e];
+        }
+
+        static Automaton build(List<String> words, List<Integer> ids, List<Boolean> folded) {
+            List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+            List<int[]> terminal = new ArrayList<>();
+            trie.add(new TreeMap<>());
+            terminal.add(null);
+            for (int w = 0; w < words.size(); w++) {
+                String word = foldAscii(words.get(w));
+                int node = 0;
+                for (int i = 0; i < word.length(); i++) {
+                    Integer next = trie.get(node).get(word.charAt(i));
+                    if (next == null) {
+                        next = trie.size();
+                        trie.get(node).put(word.charAt(i), next);
+                        trie.add(new TreeMap<>());
+                        terminal.add(null);
+                    }
+                    node = next;
+                }
+                terminal.set(node, union(terminal.get(node), new int[] { w }));
+            }
+            int n = trie.size();
+            int[] edgeStart = new int[n + 1];
+            int edges = 0;
+            for (int i = 0; i < n; i++) { edgeStart[i] = edges; edges += trie.get(i).size(); }
+            edgeStart[n] = edges;
+            char[] edgeChar = new char[edges];
+            int[] edgeTarget = new int[edges];
+            for (int i = 0; i < n; i++) {
+                int e = edgeStart[i];
+                for (Map.Entry<Character, Integer> en : trie.get(i).entrySet()) {
+                    edgeChar[e] = en.getKey();
+                    edgeTarget[e++] = en.getValue();
+                }
+            }
+            int[] fail = new int[n];
+            int[][] out = terminal.toArray(new int[0][]);
+            boolean[] foldedArr = new boolean[words.size()];
+            for (int w = 0; w < foldedArr.length; w++) foldedArr[w] = folded.get(w);
+            Automaton a = new Automaton(edgeStart, edgeChar, edgeTarget, fail, out, words.toArray(new String[0]),
+                    ids.stream().mapToInt(Integer::intValue).toArray(), foldedArr);
+            // Breadth-first so every node's failure link is final before its children are visited
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int e = edgeStart[0]; e < edgeStart[1]; e++) queue.add(edgeTarget[e]);
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                out[node] = union(out[node], out[fail[node]]);
+                for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                    int child = edgeTarget[e];
+                    char c = edgeChar[e];
+                    int f = fail[node];
+                    int next;
+                    while ((next = a.child(f, c)) < 0 && f != 0) f = fail[f];
+                    fail[child] = next >= 0 && next != child ? next : 0;
+                    queue.add(child);
+                }
+            }
+            return a;
+        }
+
+        /** True as soon as a plain entry occurs in {@code s}; otherwise sets the bit of every guarded regex seen. */
+        boolean find(String s, long[] seen) {
+            int state = 0;
+            for (int i = 0, len = s.length(); i < len; i++) {
+                char c = s.charAt(i);
+                if (c >= 'A' && c <= 'Z') c += 32;
+                int next;
+                while ((next = child(state, c)) < 0 && state != 0) state = fail[state];
+                state = next < 0 ? 0 : next;
+                int[] ends = out[state];
+                if (ends == null) continue;
+                for (int w : ends) {
+                    String word = words[w];
+                    if (!folded[w] && !s.regionMatches(i + 1 - word.length(), word, 0, word.length())) continue;
+                    int id = ids[w];
+                    if (id == LITERAL) return true;
+                    seen[id >>> 6] |= 1L << id;
+                }
+            }
+            return false;
+        }
+
+        private static int[] union(int[] a, int[] b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            int[] u = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, u, a.length, b.length);
+            return u;
+        }
+
+        private int child(int node, char c) {
+            if (node == 0 && c < 128) return rootAscii[c];
+            int i = Arrays.binarySearch(edgeChar, edgeStart[node], edgeStart[node + 1], c);
+            return i >= 0 ? edgeTarget[i] : -1;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.metrics.Histogram;
+import net.minecraft.client.gui.hud.ChatHud;
+import net.minecraft.text.Text;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hand-off from provider threads to the client thread.
+ * Providers only enqueue finished {@link Text} lines (lock-free, multi-producer); the ChatHud is touched exclusively
+ * from {@link #drain} on END_CLIENT_TICK, within a per-tick message count and time budget.
+ */
+final class HudDeliveryQueue {
+    private static final class Line {
+        final Text text;
+        final long sourceMs; // message timestamp, 0 for notices
+
+        Line(Text text, long sourceMs) {
+            this.text = text;
+            this.sourceMs = sourceMs;
+        }
+    }
+
+    private final ConcurrentLinkedQueue<Line> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(); // ConcurrentLinkedQueue.size() is O(n)
+
+    /** Enqueues a chat line; returns false when {@code capacity} lines are already waiting. */
+    boolean offer(Text line, long sourceMs, int capacity) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        queue.offer(new Line(line, sourceMs));
+        return true;
+    }
+
+    /** Notices and errors are never dropped. */
+    void offerNotice(Text line) {
+        size.incrementAndGet();
+        queue.offer(new Line(line, 0));
+    }
+
+    /**
+     * Client thread only. Always delivers at least one line so a tiny budget cannot starve the queue.
+     * Records each chat line's source-to-HUD delay into {@code endToEnd}.
+     */
+    int drain(ChatHud hud, int maxLines, long budgetNanos, Histogram endToEnd) {
+        long deadline = System.nanoTime() + budgetNanos;
+        long nowMs = System.currentTimeMillis();
+        int n = 0;
+        Line line;
+        while ((line = queue.poll()) != null) {
+            size.decrementAndGet();
+            hud.addMessage(line.text);
+            if (line.sourceMs > 0) endToEnd.record((nowMs - line.sourceMs) * 1000);
+            n++;
+            if (n >= maxLines || System.nanoTime() - deadline >= 0) break;
+        }
+        return n;
+    }
+
+    int depth() { return size.get(); }
+}
@@ -0,0 +1,303 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fixed-capacity ring of recent chat messages in a columnar layout: timestamps in a {@code long[]}, roles and kinds as
+ * bytes, authors as ids into a ref-counted intern table, and text as UTF-8 in one shared byte arena. Nothing is
+ * allocated per stored message besides new author names; paid and membership details are kept by reference.
+ * <p>
+ * A search holds the lock only to copy {@link #SEARCH_CHUNK} entries at a time, and runs the regex on the copies, so
+ * {@link #record} is never blocked for long however slow the pattern is. Only hits become {@link ChatMessage} objects.
+ * <p>
+ * Memory is fixed at construction: about {@code capacity * (24 + ARENA_BYTES_PER_ENTRY)} bytes plus author names
+ * (roughly 15 MB at 100k). When the arena fills before the ring does, the oldest entries are evicted early.
+ */
+final class MessageHistory {
+    static final int ARENA_BYTES_PER_ENTRY = 128; // average budget; single messages may use up to MAX_TEXT_BYTES
+    static final int MAX_TEXT_BYTES = 1024;
+    static final int SEARCH_CHUNK = 1024; // entries examined per lock hold
+    static final long SEARCH_BUDGET_MS = 2000; // a pathological regex is abandoned after this
+    private static final ChatMessage.Role[] ROLES = ChatMessage.Role.values();
+    private static final ChatMessage.Kind[] KINDS = ChatMessage.Kind.values();
+
+    /** Thrown by {@link #search} when matching ran past {@link #SEARCH_BUDGET_MS}. */
+    static final class SearchTimeoutException extends RuntimeException {
+        SearchTimeoutException() { super("search took longer than " + SEARCH_BUDGET_MS + " ms"); }
+    }
+
+    private final int capacity;
+    private final long[] ts;
+    private final byte[] role;
+    private final byte[] kind;
+    private final String[] detail; // null for plain text
+    private final int[] author;
+    private final int[] textOff;
+    private final short[] textLen;
+    private final byte[] arena;
+    private int head;     // next slot to write
+    private int count;
+    private int arenaPos; // next arena byte to write
+    private long written; // messages ever recorded; the one numbered n sits in slot n % capacity while kept
+    private long lapStart; // number of the first message written since arenaPos last went back to 0
+
+    private final Map<String, Integer> authorIds = new HashMap<>();
+    private String[] authorNames = new String[256];
+    private int[] authorRefs = new int[256];
+    private int[] freeAuthorIds = new int[256];
+    private int freeAuthors;
+    private int authorSlots;
+
+    MessageHistory(int capacity) {
+        this.capacity = capacity;
+        ts = new long[capacity];
+        role = new byte[capacity];
+        kind = new byte[capacity];
+        detail = new String[capacity];
+        author = new int[capacity];
+        textOff = new int[capacity];
+        textLen = new short[capacity];
+        arena = new byte[Math.max(MAX_TEXT_BYTES, capacity * ARENA_BYTES_PER_ENTRY)];
+    }
+
+    synchronized void record(ChatMessage msg) {
+        String text = msg.message == null ? "" : msg.message;
+        int len = utf8Length(text, MAX_TEXT_BYTES);
+        if (count == capacity) evictOldest();
+        if (arenaPos + len > arena.length) {
+            // Skip the tail gap; everything from the previous lap sits there, at or after arenaPos
+            while (count > 0 && fromPreviousLap()) evictOldest();
+            arenaPos = 0;
+            lapStart = written;
+        }
+        // Entries of the previous lap lie at or after arenaPos in arena order, so compare offsets alone:
+        // an empty one at exactly arenaPos still has to go before the entries behind it can
+        while (count > 0 && fromPreviousLap() && textOff[oldest()] < arenaPos + len) evictOldest();
+
+        int slot = head;
+        ts[slot] = msg.timestamp;
+        role[slot] = (byte) msg.role.ordinal();
+        kind[slot] = (byte) msg.kind.ordinal();
+        detail[slot] = msg.kind == ChatMessage.Kind.TEXT ? null : msg.detail;
+        author[slot] = internAuthor(msg.displayName == null ? "" : msg.displayName);
+        textOff[slot] = arenaPos;
+        textLen[slot] = (short) len;
+        encodeUtf8(text, arena, arenaPos, len);
+        arenaPos += len;
+        head = (head + 1) % capacity;
+        count++;
+        written++;
+    }
+
+    synchronized int size() { return count; }
+
+    /**
+     * Newest {@code limit} messages matching {@code query}, oldest first. An empty query matches everything; a query
+     * equal to an author name (ignoring case) selects that author; anything else is an ASCII case-insensitive regex on
+     * the text. Throws {@link java.util.regex.PatternSyntaxException} for an invalid regex and
+     * {@link SearchTimeoutException} when matching takes too long. Call off the client thread.
+     */
+    List<ChatMessage> search(String query, int limit) {
+        boolean byAuthor = false;
+        if (query != null && !query.isEmpty()) {
+            synchronized (this) {
+                for (int id = 0; id < authorSlots && !byAuthor; id++) {
+                    byAuthor = authorRefs[id] > 0 && authorNames[id].equalsIgnoreCase(query);
+                }
+            }
+        }
+        Matcher matcher = query == null || query.isEmpty() || byAuthor ? null : Pattern.compile(query, Pattern.CASE_INSENSITIVE).matcher("");
+        Chunk chunk = new Chunk();
+        Chars text = new Chars(System.nanoTime() + SEARCH_BUDGET_MS * 1_000_000L);
+        List<ChatMessage> hits = new ArrayList<>(Math.max(0, Math.min(limit, 256)));
+        long next = Long.MAX_VALUE; // number of the next message to look at, going back in time
+        boolean done = false;
+        while (!done && hits.size() < limit) {
+            synchronized (this) {
+                next = copyChunk(chunk, Math.min(next, written - 1), byAuthor ? query : null);
+                done = next < written - count; // walked past the oldest kept message
+            }
+            for (int i = 0; i < chunk.n && hits.size() < limit; i++) {
+                text.decode(chunk.bytes, chunk.off[i], chunk.len[i]);
+                if (matcher != null && !matcher.reset(text).find()) continue;
+                hits.add(new ChatMessage(chunk.names[i], text.toString(), ROLES[chunk.role[i]], chunk.ts[i],
+                        KINDS[chunk.kind[i]], chunk.details[i]));
+            }
+            text.checkDeadline();
+        }
+        Collections.reverse(hits);
+        return hits;
+    }
+
+    /** Copies up to {@link #SEARCH_CHUNK} messages numbered {@code from} and below; returns the next number to visit. */
+    private long copyChunk(Chunk c, long from, String authorQuery) {
+        c.n = 0;
+        int used = 0;
+        long n = from;
+        for (long stop = Math.max(written - count, from - SEARCH_CHUNK + 1); n >= stop; n--) {
+            int slot = (int) (n % capacity);
+            String name = authorNames[author[slot]];
+            if (authorQuery != null && !name.equalsIgnoreCase(authorQuery)) continue;
+            if (used + textLen[slot] > c.bytes.length) break; // long texts: the rest goes in the next chunk
+            int i = c.n++;
+            c.ts[i] = ts[slot];
+            c.role[i] = role[slot];
+            c.kind[i] = kind[slot];
+            c.names[i] = name;
+            c.details[i] = detail[slot];
+            c.off[i] = used;
+            c.len[i] = textLen[slot];
+            System.arraycopy(arena, textOff[slot], c.bytes, used, textLen[slot]);
+            used += textLen[slot];
+        }
+        return n;
+    }
+
+    private int oldest() { return Math.floorMod(head - count, capacity); }
+
+    private boolean fromPreviousLap() { return written - count < lapStart; }
+
+    private void evictOldest() {
+        detail[oldest()] = null;
+        int id = author[oldest()];
+        if (--authorRefs[id] == 0) {
+            authorIds.remove(authorNames[id]);
+            authorNames[id] = null;
+            freeAuthorIds[freeAuthors++] = id;
+        }
+        count--;
+    }
+
+    private int internAuthor(String name) {
+        Integer known = authorIds.get(name);
+        int id;
+        if (known != null) id = known;
+        else {
+            if (freeAuthors > 0) id = freeAuthorIds[--freeAuthors];
+            else {
+                if (authorSlots == authorNames.length) {
+                    int n = authorSlots * 2;
+                    authorNames = Arrays.copyOf(authorNames, n);
+                    authorRefs = Arrays.copyOf(authorRefs, n);
+                    freeAuthorIds = Arrays.copyOf(freeAuthorIds, n);
+                }
+                id = authorSlots++;
+            }
+            authorNames[id] = name;
+            authorIds.put(name, id);
+        }
+        authorRefs[id]++;
+        return id;
+    }
+
+    /** Encoded length of {@code s}, cut at a code point boundary so it fits in {@code max} bytes. */
+    private static int utf8Length(String s, int max) {
+        int n = 0;
+        for (int i = 0, len = s.length(); i < len; i++) {
+            char c = s.charAt(i);
+            int b;
+            if (c < 0x80) b = 1;
+            else if (c < 0x800) b = 2;
+            else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) { b = 4; i++; }
+            else if (Character.isSurrogate(c)) b = 1; // lone surrogate, written as '?' like String.getBytes
+            else b = 3;
+            if (n + b > max) break;
+            n += b;
+        }
+        return n;
+    }
+
+    private static void encodeUtf8(String s, byte[] dst, int off, int budget) {
+        int p = off, end = off + budget;
+        for (int i = 0, len = s.length(); i < len && p < end; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) dst[p++] = (byte) c;
+            else if (c < 0x800) {
+                dst[p++] = (byte) (0xC0 | c >> 6);
+                dst[p++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                dst[p++] = (byte) (0xF0 | cp >> 18);
+                dst[p++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                dst[p++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                dst[p++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                dst[p++] = '?';
+            } else {
+                dst[p++] = (byte) (0xE0 | c >> 12);
+                dst[p++] = (byte) (0x80 | c >> 6 & 0x3F);
+                dst[p++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /** One lock hold's worth of copied entries. */
+    private static final class Chunk {
+        final long[] ts = new long[SEARCH_CHUNK];
+        final byte[] role = new byte[SEARCH_CHUNK];
+        final byte[] kind = new byte[SEARCH_CHUNK];
+        final String[] names = new String[SEARCH_CHUNK];
+        final String[] details = new String[SEARCH_CHUNK];
+        final int[] off = new int[SEARCH_CHUNK];
+        final int[] len = new int[SEARCH_CHUNK];
+        final byte[] bytes = new byte[SEARCH_CHUNK * MAX_TEXT_BYTES / 4];
+        int n;
+    }
+
+    /**
+     * Decoded text of one entry as the regex input. Checks the search deadline every few thousand reads, which is
+     * what stops a catastrophically backtracking pattern.
+     */
+    private static final class Chars implements CharSequence {
+        private final char[] buf = new char[MAX_TEXT_BYTES];
+        private final long deadlineNanos;
+        private int len;
+        private int reads;
+
+        Chars(long deadlineNanos) { this.deadlineNanos = deadlineNanos; }
+
+        /** Only ever sees bytes written by {@link #encodeUtf8}. */
+        void decode(byte[] src, int off, int count) {
+            int p = off, end = off + count, n = 0;
+            while (p < end) {
+                int b = src[p++];
+                if (b >= 0) buf[n++] = (char) b;
+                else if ((b & 0xE0) == 0xC0) buf[n++] = (char) ((b & 0x1F) << 6 | src[p++] & 0x3F);
+                else if ((b & 0xF0) == 0xE0) {
+                    buf[n++] = (char) ((b & 0x0F) << 12 | (src[p] & 0x3F) << 6 | src[p + 1] & 0x3F);
+                    p += 2;
+                } else {
+                    int cp = (b & 0x07) << 18 | (src[p] & 0x3F) << 12 | (src[p + 1] & 0x3F) << 6 | src[p + 2] & 0x3F;
+                    p += 3;
+                    buf[n++] = Character.highSurrogate(cp);
+                    buf[n++] = Character.lowSurrogate(cp);
+                }
+            }
+            len = n;
+        }
+
+        void checkDeadline() {
+            if (System.nanoTime() - deadlineNanos > 0) throw new SearchTimeoutException();
+        }
+
+        @Override public int length() { return len; }
+
+        @Override
+        public char charAt(int index) {
+            if ((++reads & 0xFFF) == 0) checkDeadline();
+            return buf[index];
+        }
+
+        @Override public CharSequence subSequence(int start, int end) { return new String(buf, start, end - start); }
+        @Override public String toString() { return new String(buf, 0, len); }
+    }
+}
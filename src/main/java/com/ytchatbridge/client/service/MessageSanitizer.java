@@ -0,0 +1,65 @@
+package com.ytchatbridge.client.service;
+
+/**
+ * Single-pass replacement for {@code s.replaceAll("§.", "").replaceAll("\\p{Cntrl}", "").trim()} followed by
+ * truncation to {@code maxLineLength}. Truncation counts code points, so a surrogate pair is never split.
+ * Uses a per-thread buffer and returns the input instance when nothing had to change.
+ */
+final class MessageSanitizer {
+    private static final ThreadLocal<StringBuilder> BUF = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private MessageSanitizer() {}
+
+    static String sanitize(String s, int maxCodePoints) {
+        if (s == null) return "";
+        if (clean(s, Math.max(0, maxCodePoints))) return s;
+        StringBuilder out = BUF.get();
+        out.setLength(0);
+        boolean changed = false;
+        int keep = 0; // output length up to the last non-space char (trailing trim)
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c == '§' && i + 1 < n && !isLineTerminator(s.charAt(i + 1))) {
+                // '§.' consumes one code point, like the regex did
+                i++;
+                if (Character.isHighSurrogate(s.charAt(i)) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) i++;
+                changed = true;
+                continue;
+            }
+            if (c < 0x20 || c == 0x7F || (c == ' ' && out.length() == 0)) { // control chars and leading spaces
+                changed = true;
+                continue;
+            }
+            out.append(c);
+            if (c != ' ') keep = out.length();
+        }
+        if (keep < out.length()) {
+            out.setLength(keep);
+            changed = true;
+        }
+        int max = Math.max(0, maxCodePoints);
+        if (out.length() > max && Character.codePointCount(out, 0, out.length()) > max) {
+            out.setLength(out.offsetByCodePoints(0, max));
+            out.append('…');
+            changed = true;
+        }
+        return changed ? out.toString() : s;
+    }
+
+    /** Common case: nothing to strip, trim or cut. */
+    private static boolean clean(String s, int max) {
+        int n = s.length();
+        if (n == 0) return true;
+        if (s.charAt(0) == ' ' || s.charAt(n - 1) == ' ') return false;
+        for (int i = 0; i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 0x20 || c == 0x7F || c == '§') return false;
+        }
+        return n <= max || s.codePointCount(0, n) <= max;
+    }
+
+    // Regex '.' does not match these, so "§\n" is left for the control-char pass
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,129 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.config.ConfigManager;
+import com.ytchatbridge.client.model.ChatMessage;
+
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Style;
+import net.minecraft.text.Text;
+import net.minecraft.text.TextColor;
+import net.minecraft.util.Formatting;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Everything about a chat line that only depends on config: parsed prefixes, one name Style per role and the
+ * separator. Built once per config change and published as a whole, so the per-message path only adds the
+ * name and body components. The Text parts are shared between lines and never mutated.
+ */
+final class RenderProfile {
+    final Text prefix;
+    final Text separator = Text.literal(": ").formatted(Formatting.GRAY);
+    private final Style[] roleStyles = new Style[ChatMessage.Role.values().length];
+    private final Map<String, Text> streamPrefixes = new HashMap<>();
+
+    private RenderProfile(ConfigManager.Data cfg) {
+        String raw = cfg.prefix == null ? "[YTChat]" : cfg.prefix;
+        // Support color codes in prefix: &<0-9a-fk-or>
+        this.prefix = parseColoredPrefix(raw + " ", Style.EMPTY.withFormatting(Formatting.GRAY));
+        for (ChatMessage.Role role : ChatMessage.Role.values()) {
+            String hex = switch (role) {
+                case OWNER -> cfg.defaultColors.owner;
+                case MODERATOR -> cfg.defaultColors.moderater;
+                case MEMBER -> cfg.defaultColors.member;
+                default -> cfg.defaultColors.user;
+            };
+            roleStyles[role.ordinal()] = Style.EMPTY.withColor(TextColor.fromRgb(parseHex(hex, 0xE0E0E0)));
+        }
+        if (cfg.streamStyles != null) {
+            for (var e : cfg.streamStyles.entrySet()) {
+                var st = e.getValue();
+                if (st == null || (st.prefix == null && st.color == null)) continue;
+                String p = st.prefix != null ? st.prefix : raw;
+                // A per-stream color tints the parts without an explicit code
+                Style base = st.color != null ? Style.EMPTY.withColor(TextColor.fromRgb(parseHex(st.color, 0xAAAAAA))) : Style.EMPTY.withFormatting(Formatting.GRAY);
+                streamPrefixes.put(e.getKey(), parseColoredPrefix(p + " ", base));
+            }
+        }
+    }
+
+    static RenderProfile from(ConfigManager.Data cfg) { return new RenderProfile(cfg); }
+
+    Text prefixFor(String videoId) {
+        Text p = streamPrefixes.get(videoId);
+        return p != null ? p : prefix;
+    }
+
+    Style roleStyle(ChatMessage.Role role) { return roleStyles[role.ordinal()]; }
+
+    /**
+     * The HUD line for an already sanitized body: stream prefix, role-colored name, separator, text. Paid and
+     * membership items add their amount or header after the name, and drop the separator when they carry no text.
+     */
+    Text line(String videoId, ChatMessage msg, String body) {
+        return line(Text.empty().append(prefixFor(videoId)), msg, body);
+    }
+
+    /** Same layout after {@code lead} instead of the stream prefix, e.g. a timestamp in /ytchat history. */
+    MutableText line(MutableText lead, ChatMessage msg, String body) {
+        MutableText line = lead.append(Text.literal(msg.displayName).setStyle(roleStyle(msg.role)));
+        if (msg.kind != ChatMessage.Kind.TEXT) {
+            String detail = MessageSanitizer.sanitize(msg.detail, 64);
+            Formatting f = msg.kind == ChatMessage.Kind.PAID ? Formatting.GOLD : Formatting.GREEN;
+            if (!detail.isEmpty()) line.append(Text.literal(" [" + detail + "]").formatted(f));
+            if (body.isEmpty()) return line;
+        }
+        return line.append(separator).append(Text.literal(body));
+    }
+
+    private static int parseHex(String hex, int fallback) {
+        try {
+            if (hex != null && hex.startsWith("#")) return Integer.parseInt(hex.substring(1), 16);
+        } catch (NumberFormatException ignored) {}
+        return fallback;
+    }
+
+    private static MutableText parseColoredPrefix(String raw, Style base) {
+        MutableText out = Text.empty();
+        Formatting current = null; // null -> base style
+        StringBuilder acc = new StringBuilder();
+        for (int i=0;i<raw.length();i++) {
+            char c = raw.charAt(i);
+            if (c == '&' && i+1 < raw.length()) {
+                // flush existing
+                if (acc.length()>0) { out.append(styled(acc.toString(), current, base)); acc.setLength(0); }
+                char code = Character.toLowerCase(raw.charAt(++i));
+                Formatting f = formattingFromCode(code);
+                if (f != null) current = f; else acc.append('&').append(code); // unknown -> keep literal
+            } else acc.append(c);
+        }
+        if (acc.length()>0) out.append(styled(acc.toString(), current, base));
+        return out;
+    }
+    private static Text styled(String s, Formatting f, Style base) {
+        return f == null ? Text.literal(s).setStyle(base) : Text.literal(s).formatted(f);
+    }
+    private static Formatting formattingFromCode(char c) {
+        return switch (c) {
+            case '0' -> Formatting.BLACK;
+            case '1' -> Formatting.DARK_BLUE;
+            case '2' -> Formatting.DARK_GREEN;
+            case '3' -> Formatting.DARK_AQUA;
+            case '4' -> Formatting.DARK_RED;
+            case '5' -> Formatting.DARK_PURPLE;
+            case '6' -> Formatting.GOLD;
+            case '7' -> Formatting.GRAY;
+            case '8' -> Formatting.DARK_GRAY;
+            case '9' -> Formatting.BLUE;
+            case 'a' -> Formatting.GREEN;
+            case 'b' -> Formatting.AQUA;
+            case 'c' -> Formatting.RED;
+            case 'd' -> Formatting.LIGHT_PURPLE;
+            case 'e' -> Formatting.YELLOW;
+            case 'f' -> Formatting.WHITE;
+            case 'r' -> Formatting.RESET;
+            default -> null;
+        };
+    }
+}
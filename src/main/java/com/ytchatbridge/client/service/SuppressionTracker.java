@@ -0,0 +1,99 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.model.ChatMessage;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Counts messages that were not shown, by reason and role, so drops are reported instead of silent.
+ * Producers (provider threads) only touch atomics; the client tick calls {@link #drainSummary} to turn the
+ * current interval into one coalesced line plus an optional uniform sample of what was dropped.
+ */
+final class SuppressionTracker {
+    enum Reason { THROTTLE, FILTER, OVERFLOW }
+
+    private static final int ROLES = ChatMessage.Role.values().length;
+    static final int MAX_SAMPLE = 10;
+
+    private final AtomicLongArray interval = new AtomicLongArray(Reason.values().length * ROLES);
+    private final AtomicLongArray total = new AtomicLongArray(Reason.values().length * ROLES);
+    // Reservoir sample of the current interval (throttle/overflow only; filtered text is never echoed)
+    private final AtomicReferenceArray<ChatMessage> sample = new AtomicReferenceArray<>(MAX_SAMPLE);
+    private final AtomicLong sampleSeen = new AtomicLong();
+
+    void record(Reason reason, ChatMessage msg, int sampleSize) {
+        int cell = reason.ordinal() * ROLES + msg.role.ordinal();
+        interval.incrementAndGet(cell);
+        total.incrementAndGet(cell);
+        int k = Math.min(sampleSize, MAX_SAMPLE);
+        if (k <= 0 || reason == Reason.FILTER) return;
+        long i = sampleSeen.getAndIncrement();
+        if (i < k) sample.set((int) i, msg);
+        else {
+            long j = ThreadLocalRandom.current().nextLong(i + 1);
+            if (j < k) sample.set((int) j, msg);
+        }
+    }
+
+    long total(Reason reason) {
+        long n = 0;
+        for (int r = 0; r < ROLES; r++) n += total.get(reason.ordinal() * ROLES + r);
+        return n;
+    }
+
+    long total(ChatMessage.Role role) {
+        long n = 0;
+        for (Reason reason : Reason.values()) n += total.get(reason.ordinal() * ROLES + role.ordinal());
+        return n;
+    }
+
+    /**
+     * Resets the interval and describes it, e.g. "+37 messages suppressed (2 members) [throttle 30, filter 7]".
+     * Returns null when nothing was dropped. Sampled messages are appended to {@code sampled}.
+     */
+    String drainSummary(List<ChatMessage> sampled) {
+        long[] byReason = new long[Reason.values().length];
+        long[] byRole = new long[ROLES];
+        long sum = 0;
+        for (Reason reason : Reason.values()) {
+            for (int r = 0; r < ROLES; r++) {
+                long n = interval.getAndSet(reason.ordinal() * ROLES + r, 0);
+                byReason[reason.ordinal()] += n;
+                byRole[r] += n;
+                sum += n;
+            }
+        }
+        long seen = sampleSeen.getAndSet(0);
+        for (int i = 0; i < MAX_SAMPLE; i++) {
+            ChatMessage m = sample.getAndSet(i, null);
+            if (m != null && i < seen) sampled.add(m);
+        }
+        if (sum == 0) return null;
+
+        StringBuilder sb = new StringBuilder("+").append(sum).append(sum == 1 ? " message" : " messages").append(" suppressed");
+        StringBuilder roles = new StringBuilder();
+        for (ChatMessage.Role role : ChatMessage.Role.values()) {
+            long n = byRole[role.ordinal()];
+            if (n == 0 || role == ChatMessage.Role.USER) continue;
+            if (roles.length() > 0) roles.append(", ");
+            String name = role.name().toLowerCase(Locale.ROOT);
+            roles.append(n).append(' ').append(name).append(n == 1 ? "" : "s");
+        }
+        if (roles.length() > 0) sb.append(" (").append(roles).append(')');
+        sb.append(" [");
+        boolean first = true;
+        for (Reason reason : Reason.values()) {
+            long n = byReason[reason.ordinal()];
+            if (n == 0) continue;
+            if (!first) sb.append(", ");
+            sb.append(reason.name().toLowerCase(Locale.ROOT)).append(' ').append(n);
+            first = false;
+        }
+        return sb.append(']').toString();
+    }
+}
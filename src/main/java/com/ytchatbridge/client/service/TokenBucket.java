@@ -0,0 +1,27 @@
+package com.ytchatbridge.client.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in GCRA form: the whole state is one "theoretical arrival time" updated by CAS,
+ * refilled continuously from {@link System#nanoTime()}; no background refill task.
+ * Capacity equals the per-minute rate, so an idle bucket allows a burst of one minute's worth.
+ */
+final class TokenBucket {
+    private static final long MINUTE_NANOS = 60_000_000_000L;
+
+    private final AtomicLong tat = new AtomicLong(System.nanoTime());
+
+    /** Takes one token at {@code perMin} messages/minute; the rate may change between calls. */
+    boolean tryAcquire(int perMin) {
+        if (perMin <= 0) return false;
+        long interval = MINUTE_NANOS / perMin; // exact per-token spacing, no per-second rounding
+        long now = System.nanoTime();
+        for (;;) {
+            long cur = tat.get();
+            long next = (cur - now < 0 ? now : cur) + interval;
+            if (next - now > MINUTE_NANOS) return false; // bucket empty
+            if (tat.compareAndSet(cur, next)) return true;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContinuationCheckpointTest {
+    @Test
+    void keepsNewestStateWithItsIds() throws IOException {
+        Path file = Files.createTempDirectory("ytck").resolve("jfKfPfyJRdk.ckpt");
+        try (ContinuationCheckpoint cp = ContinuationCheckpoint.open(file)) {
+            cp.write("jfKfPfyJRdk", "0ofMyAN-first", 100L, new long[] { 1L, 2L, 3L }, 2, 1_000L);
+            cp.write("jfKfPfyJRdk", "0ofMyAN-second", 200L, new long[] { 7L }, 1, 2_000L);
+        }
+        ContinuationCheckpoint.State s = ContinuationCheckpoint.read(file);
+        assertEquals("0ofMyAN-second", s.continuation());
+        assertEquals(200L, s.lastTsUsec());
+        assertArrayEquals(new long[] { 7L }, s.lastIds());
+
+        try (ContinuationCheckpoint cp = ContinuationCheckpoint.open(file)) {
+            cp.write("jfKfPfyJRdk", "0ofMyAN-third", 300L, new long[0], 0, 3_000L);
+        }
+        s = ContinuationCheckpoint.read(file);
+        assertEquals("0ofMyAN-third", s.continuation());
+        assertArrayEquals(new long[0], s.lastIds());
+    }
+}
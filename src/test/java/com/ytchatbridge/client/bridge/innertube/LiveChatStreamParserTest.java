@@ -0,0 +1,177 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.ytchatbridge.client.model.ChatMessage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LiveChatStreamParserTest {
+    private static final long T = 1_760_000_000_000_000L;
+
+    /** A get_live_chat body with one text message per {@code id:tsUsec} pair; the message text is the ID. */
+    static byte[] response(String... items) {
+        StringBuilder sb = new StringBuilder("{\"continuationContents\":{\"liveChatContinuation\":{\"continuations\":[")
+                .append("{\"invalidationContinuationData\":{\"timeoutMs\":5000,\"continuation\":\"next\"}}],\"actions\":[");
+        for (int i = 0; i < items.length; i++) {
+            String[] it = items[i].split(":");
+            if (i > 0) sb.append(',');
+            sb.append("{\"addChatItemAction\":{\"item\":{\"liveChatTextMessageRenderer\":{\"message\":{\"runs\":[{\"text\":\"")
+              .append(it[0]).append("\"}]},\"authorName\":{\"simpleText\":\"@viewer\"},\"id\":\"").append(it[0])
+              .append("\",\"timestampUsec\":\"").append(it[1]).append("\",\"authorExternalChannelId\":\"UCviewer\"}}}}");
+        }
+        return sb.append("]}}}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** One text message with its fields in YouTube's order: name and badges come before the channel ID. */
+    private static byte[] authored(String id, String name, String channelId, String badgeStyle) {
+        String badges = badgeStyle == null ? "" : "\"authorBadges\":[{\"metadataBadgeRenderer\":{\"icon\":{\"iconType\":\"MODERATOR\"},"
+                + "\"style\":\"" + badgeStyle + "\",\"tooltip\":\"Moderator\",\"accessibilityData\":{\"label\":\"Moderator\"}}}],";
+        return ("{\"continuationContents\":{\"liveChatContinuation\":{\"actions\":[{\"addChatItemAction\":{\"item\":"
+                + "{\"liveChatTextMessageRenderer\":{\"message\":{\"runs\":[{\"text\":\"hi\"}]},\"authorName\":{\"simpleText\":\""
+                + name + "\"},\"id\":\"" + id + "\",\"timestampUsec\":\"" + T + "\"," + badges
+                + "\"authorExternalChannelId\":\"" + channelId + "\"}}}}]}}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ChatMessage only(LiveChatStreamParser p, byte[] body) throws IOException {
+        p.parse(new ByteArrayInputStream(body), 0);
+        assertEquals(1, p.messages.size());
+        return p.messages.get(0);
+    }
+
+    static List<String> texts(LiveChatStreamParser p) {
+        List<String> out = new ArrayList<>();
+        for (ChatMessage m : p.messages) out.add(m.message);
+        return out;
+    }
+
+    /** Serves the first {@code cut} bytes of {@code body}, then throws {@code failure}, as a dropped download would. */
+    private static InputStream cutAt(byte[] body, int cut, IOException failure) {
+        return new FilterInputStream(new ByteArrayInputStream(body, 0, cut)) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b < 0) throw failure;
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n < 0) throw failure;
+                return n;
+            }
+        };
+    }
+
+    /** The handle finds the author before the channel ID is read, so a regular's badges are skipped. */
+    @Test
+    void skipsBadgesOfFreshAuthorFoundByHandle() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        ChatMessage first = only(p, authored("m1", "@mod", "UCmod", "BADGE_STYLE_TYPE_MODERATOR"));
+        assertEquals(ChatMessage.Role.MODERATOR, first.role);
+        assertEquals(0, p.authors.hits);
+
+        // Within VERIFY_MS the cached role stands: these badges are not even read
+        ChatMessage second = only(p, authored("m2", "@mod", "UCmod", "BADGE_STYLE_TYPE_MEMBER"));
+        assertEquals(ChatMessage.Role.MODERATOR, second.role);
+        assertSame(first.displayName, second.displayName);
+        assertEquals(2, p.authors.lookups);
+        assertEquals(1, p.authors.hits);
+    }
+
+    /** A skip on a handle that now belongs to another channel never lends that channel's role. */
+    @Test
+    void handleOfAnotherChannelDoesNotLendItsRole() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        only(p, authored("m1", "@name", "UCmod", "BADGE_STYLE_TYPE_MODERATOR"));
+        ChatMessage other = only(p, authored("m2", "@name", "UCother", "BADGE_STYLE_TYPE_MEMBER"));
+        assertEquals(ChatMessage.Role.USER, other.role);
+        assertEquals(0, p.authors.hits);
+        // The handle now points at the new channel, which has not been verified yet: its badges are read
+        assertEquals(ChatMessage.Role.MEMBER, only(p, authored("m3", "@name", "UCother", "BADGE_STYLE_TYPE_MEMBER")).role);
+        assertEquals(ChatMessage.Role.MODERATOR, only(p, authored("m4", "@mod2", "UCmod", "BADGE_STYLE_TYPE_MODERATOR")).role);
+    }
+
+    /** Two channels taking turns with one handle: after the first mix-up, both have their badges read. */
+    @Test
+    void sharedHandleIsNoLongerGuessedFrom() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        only(p, authored("m0", "@x", "UCa", "BADGE_STYLE_TYPE_MODERATOR"));
+        assertEquals(ChatMessage.Role.USER, only(p, authored("m1", "@x", "UCb", "BADGE_STYLE_TYPE_MEMBER")).role);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(ChatMessage.Role.MODERATOR, only(p, authored("a" + i, "@x", "UCa", "BADGE_STYLE_TYPE_MODERATOR")).role);
+            assertEquals(ChatMessage.Role.MEMBER, only(p, authored("b" + i, "@x", "UCb", "BADGE_STYLE_TYPE_MEMBER")).role);
+        }
+        assertEquals(0, p.authors.hits);
+    }
+
+    @Test
+    void displayNamesWithoutHandleAreNotGuessedFrom() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        only(p, authored("m1", "Bob", "UC1", "BADGE_STYLE_TYPE_MODERATOR"));
+        assertEquals(ChatMessage.Role.MEMBER, only(p, authored("m2", "Bob", "UC2", "BADGE_STYLE_TYPE_MEMBER")).role);
+        assertEquals(ChatMessage.Role.MODERATOR, only(p, authored("m3", "Bob", "UC1", "BADGE_STYLE_TYPE_MODERATOR")).role);
+        assertEquals(0, p.authors.hits);
+    }
+
+    /** A body that breaks off halfway delivers nothing, and fetching it again delivers every message. */
+    @Test
+    void retryAfterConnectionResetDeliversEverything() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        p.parse(new ByteArrayInputStream(response("a:" + T, "b:" + (T + 1))), 0);
+        byte[] body = response("b:" + (T + 1), "c:" + (T + 2), "d:" + (T + 3), "e:" + (T + 4));
+        long duplicates = p.duplicates;
+
+        assertThrows(SocketException.class, () -> p.parse(cutAt(body, body.length / 2, new SocketException("Connection reset")), 0));
+        assertEquals(List.of(), texts(p));
+        assertEquals(duplicates, p.duplicates);
+
+        p.parse(new ByteArrayInputStream(body), 0);
+        assertEquals(List.of("c", "d", "e"), texts(p));
+        assertEquals(duplicates + 1, p.duplicates); // only b, delivered by the first response
+    }
+
+    @Test
+    void retryAfterBrokenGzipDeliversEverything() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        byte[] body = response("a:" + T, "b:" + (T + 1), "c:" + (T + 2));
+        assertThrows(ZipException.class, () -> p.parse(cutAt(body, body.length * 2 / 3, new ZipException("invalid block type")), 0));
+        p.parse(new ByteArrayInputStream(body), 0);
+        assertEquals(List.of("a", "b", "c"), texts(p));
+    }
+
+    /** Messages stamped with the checkpoint's microsecond are kept unless they were the ones delivered. */
+    @Test
+    void resumeKeepsUndeliveredMessagesAtCheckpointTime() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        p.resumeAfter(T, new long[] { RecentIds.hash("a") });
+        p.parse(new ByteArrayInputStream(response("old:" + (T - 1), "a:" + T, "b:" + T, "c:" + (T + 1))), 0);
+        assertEquals(List.of("b", "c"), texts(p));
+        assertEquals(T + 1, p.newestUsec);
+        assertEquals(1, p.newestIdCount);
+        assertEquals(RecentIds.hash("c"), p.newestIds[0]);
+    }
+
+    @Test
+    void remembersEveryIdAtNewestTime() throws IOException {
+        LiveChatStreamParser p = new LiveChatStreamParser();
+        p.parse(new ByteArrayInputStream(response("a:" + T, "b:" + (T + 5), "c:" + (T + 5))), 0);
+        assertEquals(T + 5, p.newestUsec);
+        assertEquals(2, p.newestIdCount);
+        assertEquals(RecentIds.hash("b"), p.newestIds[0]);
+        assertEquals(RecentIds.hash("c"), p.newestIds[1]);
+    }
+}
@@ -0,0 +1,162 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NextResponseTest {
+    private static final String CHAT = "0ofMyANhGlhDaWtxSndvWVZVTlRTakUwVVRKVVdWVXRibXhvWVhOb2MzcHphV2xCRWdzeE5uUXhVVEpPZGs4M1l4b1Q2cWpkdVFFTkNnc3hOblF4VVRKT2RrODNZeUFCMAGCAQIIAQ%3D%3D";
+    private static final String COMMENTS = "Eg0SCzE2dDFRMk52Tzdjnc4BD8gEAYAEPEgVoTM4QcXlzYQhzYm4ntKgAqy7Q";
+
+    /**
+     * A /next response for a live stream as YouTube sends it without prettyPrint=false, cut down to the parts on the
+     * way to the chat: two-space indent, a space after every colon, and the comments' continuation first.
+     */
+    private static final String LIVE = """
+            {
+              "responseContext": {
+                "serviceTrackingParams": [
+                  {
+                    "service": "CSI",
+                    "params": [
+                      {
+                        "key": "c",
+                        "value": "WEB"
+                      },
+                      {
+                        "key": "cver",
+                        "value": "2.20251015.01.00"
+                      }
+                    ]
+                  }
+                ],
+                "visitorData": "CgtVZGZ1Z2VfbmZ3byiAqrjIBjIKCgJVUxIEGgAgTA%3D%3D"
+              },
+              "contents": {
+                "twoColumnWatchNextResults": {
+                  "results": {
+                    "results": {
+                      "contents": [
+                        {
+                          "videoPrimaryInfoRenderer": {
+                            "title": {
+                              "runs": [
+                                {
+                                  "text": "lofi hip hop radio \\ud83d\\udcda beats to relax/study to"
+                                }
+                              ]
+                            },
+                            "viewCount": {
+                              "videoViewCountRenderer": {
+                                "viewCount": {
+                                  "runs": [
+                                    {
+                                      "text": "31,482"
+                                    },
+                                    {
+                                      "text": " watching now"
+                                    }
+                                  ]
+                                },
+                                "isLive": true
+                              }
+                            }
+                          }
+                        },
+                        {
+                          "itemSectionRenderer": {
+                            "contents": [],
+                            "continuations": [
+                              {
+                                "nextContinuationData": {
+                                  "continuation": "$COMMENTS",
+                                  "clickTrackingParams": "CDEQzyoYACITCJPL0NnhlokDFYVATAgdGgYl8g=="
+                                }
+                              }
+                            ],
+                            "sectionIdentifier": "comment-item-section"
+                          }
+                        }
+                      ]
+                    }
+                  },
+                  "conversationBar": {
+                    "liveChatRenderer": {
+                      "continuations": [
+                        {
+                          "reloadContinuationData": {
+                            "continuation": "$CHAT",
+                            "clickTrackingParams": "CAEQl98BIhMIk8vQ2eGWiQMVhUBMCB0aBiXy"
+                          }
+                        }
+                      ],
+                      "header": {
+                        "liveChatHeaderRenderer": {
+                          "viewSelector": {
+                            "sortFilterSubMenuRenderer": {
+                              "subMenuItems": [
+                                {
+                                  "title": "Top chat",
+                                  "selected": true,
+                                  "continuation": {
+                                    "reloadContinuationData": {
+                                      "continuation": "0ofMyANhGlhDaWtxSndvWVZVTlRTakUwVVRKVVdWVXRibXhvWVhOb2MzcHphV2xCRWdzeE5uUXhVVEpPZGs4M1l4b1Q2cWpkdVFFTkNnc3hOblF4VVRKT2RrODNZeUFCMAGCAQIIAQ%3D%3D"
+                                    }
+                                  }
+                                },
+                                {
+                                  "title": "Live chat",
+                                  "selected": false,
+                                  "continuation": {
+                                    "reloadContinuationData": {
+                                      "continuation": "0ofMyANhGlhDaWtxSndvWVZVTlRTakUwVVRKVVdWVXRibXhvWVhOb2MzcHphV2xCRWdzeE5uUXhVVEpPZGs4M1l4b1Q2cWpkdVFFTkNnc3hOblF4VVRKT2RrODNZeUFCMAGCAQIIBA%3D%3D"
+                                    }
+                                  }
+                                }
+                              ]
+                            }
+                          }
+                        }
+                      },
+                      "initialDisplayState": "LIVE_CHAT_DISPLAY_STATE_EXPANDED"
+                    }
+                  }
+                }
+              }
+            }
+            """.replace("$COMMENTS", COMMENTS).replace("$CHAT", CHAT);
+
+    private static String chat(String json) throws IOException {
+        try (JsonReader r = new JsonReader(new StringReader(json))) {
+            return NextResponse.chatContinuation(r);
+        }
+    }
+
+    @Test
+    void findsChatContinuationInPrettyPrintedBody() throws IOException {
+        assertEquals(CHAT, chat(LIVE));
+    }
+
+    @Test
+    void findsChatContinuationInCompactBody() throws IOException {
+        assertEquals(CHAT, chat(JsonParser.parseString(LIVE).toString()));
+    }
+
+    @Test
+    void decodesEscapes() throws IOException {
+        assertEquals(CHAT, chat(LIVE.replace(CHAT, CHAT.replace("%", "\\u0025"))));
+    }
+
+    @Test
+    void nullWithoutLiveChat() throws IOException {
+        String vod = LIVE.replace("liveChatRenderer", "playlistRenderer");
+        assertNull(chat(vod));
+    }
+}
@@ -0,0 +1,70 @@
+package com.ytchatbridge.client.bridge.innertube;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentIdsTest {
+    private static long id(int i) { return RecentIds.hash("id" + i); }
+
+    /** A failed response on top of a full set must not cost the set any delivered IDs. */
+    @Test
+    void rollbackKeepsEveryCommittedId() {
+        RecentIds ids = new RecentIds(8);
+        for (int i = 0; i < 8; i++) ids.add(id(i));
+        ids.commit();
+        for (int i = 8; i < 13; i++) assertTrue(ids.add(id(i)));
+        ids.rollback();
+        assertEquals(8, ids.size());
+        for (int i = 0; i < 8; i++) assertTrue(ids.contains(id(i)), "lost " + i);
+        for (int i = 8; i < 13; i++) assertFalse(ids.contains(id(i)), "kept " + i);
+    }
+
+    @Test
+    void commitEvictsOldestDownToCapacity() {
+        RecentIds ids = new RecentIds(8);
+        for (int i = 0; i < 8; i++) ids.add(id(i));
+        ids.commit();
+        for (int i = 8; i < 13; i++) ids.add(id(i));
+        ids.commit();
+        assertEquals(8, ids.size());
+        for (int i = 0; i < 5; i++) assertFalse(ids.contains(id(i)), "kept " + i);
+        for (int i = 5; i < 13; i++) assertTrue(ids.contains(id(i)), "lost " + i);
+        ids.rollback(); // nothing pending
+        assertEquals(8, ids.size());
+    }
+
+    /** Only a response with more new IDs than the capacity evicts before its commit. */
+    @Test
+    void oversizedResponseEvictsEarly() {
+        RecentIds ids = new RecentIds(8);
+        for (int i = 0; i < 8; i++) ids.add(id(i));
+        ids.commit();
+        for (int i = 8; i < 18; i++) ids.add(id(i));
+        assertEquals(16, ids.size());
+        assertFalse(ids.contains(id(0)));
+        assertFalse(ids.contains(id(1)));
+        ids.rollback();
+        assertEquals(6, ids.size());
+        for (int i = 2; i < 8; i++) assertTrue(ids.contains(id(i)), "lost " + i);
+    }
+
+    @Test
+    void survivesManyRoundsAtFullLoad() {
+        RecentIds ids = new RecentIds(64);
+        int next = 0;
+        for (int round = 0; round < 500; round++) {
+            int start = next;
+            for (int i = 0; i < 40; i++) ids.add(id(next++));
+            if (round % 3 == 0) {
+                ids.rollback();
+                next = start;
+            } else ids.commit();
+            assertTrue(ids.size() <= 64);
+        }
+        for (int i = next - 64; i < next; i++) assertTrue(ids.contains(id(i)), "lost " + i);
+        assertFalse(ids.contains(id(next - 65)));
+    }
+}
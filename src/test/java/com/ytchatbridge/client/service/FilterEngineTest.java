@@ -0,0 +1,139 @@
+package com.ytchatbridge.client.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** {@link FilterEngine} against running every entry's Pattern on its own, as isFiltered() did. */
+class FilterEngineTest {
+    private static List<Pattern> perEntry(List<String> filters) {
+        List<Pattern> out = new ArrayList<>();
+        for (String f : filters) {
+            try {
+                out.add(Pattern.compile(f));
+            } catch (PatternSyntaxException ignored) {
+                // skipped, like the engine does
+            }
+        }
+        return out;
+    }
+
+    private static boolean perEntry(List<Pattern> patterns, String s) {
+        for (Pattern p : patterns) if (p.matcher(s).find()) return true;
+        return false;
+    }
+
+    @Test
+    void requiredLiterals() {
+        assertEquals("followers", FilterEngine.requiredLiteral("(?i)buy\\s+followers\\s*"));
+        assertEquals("/x19", FilterEngine.requiredLiteral("https?://(?:bit\\.ly|tinyurl\\.com)/x19"));
+        assertEquals("robux", FilterEngine.requiredLiteral("\\bwin\\s+\\d{3,}\\s*robux"));
+        assertEquals("i99", FilterEngine.requiredLiteral("(\\w)\\1{8,}i99"));
+        assertEquals("bit.ly/", FilterEngine.requiredLiteral("bit\\.ly/[a-z]+"));
+        assertEquals("ab", FilterEngine.requiredLiteral("abc?d")); // c is optional, so the run stops before it
+        assertEquals("ab", FilterEngine.requiredLiteral("x\\p{L}ab\\x{41}"));
+        assertNull(FilterEngine.requiredLiteral("spam|scam"));
+        assertNull(FilterEngine.requiredLiteral("(?x)free vbucks"));
+        assertNull(FilterEngine.requiredLiteral("free(?i)vbucks"));
+        assertNull(FilterEngine.requiredLiteral("\\Qa.b\\E"));
+        assertNull(FilterEngine.requiredLiteral("a[]b]c"));
+        assertNull(FilterEngine.requiredLiteral("\\d+x"));
+        assertEquals("ab", FilterEngine.requiredLiteral("ab😂?"));
+    }
+
+    @Test
+    void caseInsensitiveRegexFoldsAsciiOnly() {
+        FilterEngine e = FilterEngine.compile(List.of("(?i)buy\\s+FOLLOWERS"));
+        assertTrue(e.matches("BUY   Followers now"));
+        assertFalse(e.matches("buy folowers"));
+        e = FilterEngine.compile(List.of("(?i)xÉcole"));
+        assertEquals(Pattern.compile("(?i)xÉcole").matcher("Xécole").find(), e.matches("Xécole"));
+        assertTrue(e.matches("XÉCOLE"));
+    }
+
+    /** Both kinds share one folded scan, so a case-sensitive word has to be checked where it was found. */
+    @Test
+    void plainEntriesKeepTheirCase() {
+        FilterEngine e = FilterEngine.compile(List.of("Spam", "(?i)free\\s*VBUCKS", "bit\\.ly/X"));
+        assertTrue(e.matches("no Spam here"));
+        assertFalse(e.matches("no spam or SPAM here"));
+        assertTrue(e.matches("get FREE vbucks"));
+        assertTrue(e.matches("sPaM Spam"));
+        assertFalse(e.matches("bit.ly/x"));
+        assertTrue(e.matches("BIT.LY/x bit.ly/X"));
+    }
+
+    @Test
+    void matchesPerEntryOnBlockListMix() {
+        List<String> filters = blockList(1000);
+        FilterEngine engine = FilterEngine.compile(filters);
+        List<Pattern> patterns = perEntry(filters);
+        Random rnd = new Random(5);
+        String[] pieces = { "buy", "followers", "BUY  Followers 19", "https://bit.ly/x29", "win 1234 robux39", "aaaaaaaaaaai99",
+            "freevbucks 8", "spam", "cheap subs 1", "gg", "hello", " ", "无料", "ฟรีเครดิต 6", "robux", "x" };
+        int hits = 0;
+        for (int i = 0; i < 20_000; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int n = rnd.nextInt(6); n >= 0; n--) sb.append(pieces[rnd.nextInt(pieces.length)]).append(rnd.nextBoolean() ? " " : "");
+            String s = sb.toString();
+            boolean expected = perEntry(patterns, s);
+            if (expected) hits++;
+            assertEquals(expected, engine.matches(s), () -> "message " + s);
+        }
+        assertTrue(hits > 1000 && hits < 19_000, "hits " + hits);
+    }
+
+    /** Random small patterns built from the constructs the literal extraction has to read past. */
+    @Test
+    void matchesPerEntryOnRandomPatterns() {
+        Random rnd = new Random(6);
+        String[] atoms = { "a", "b", "ab", "B", "\\.", ".", "\\d", "\\w+", "[ab]", "[^a]", "(a|b)", "(?:ba)", "x?", "a*", "b{2}",
+            "a{0,2}", "\\b", "^", "$", "|", "(?i)", "(?i:a)", "\\x41", "\\u0062", "(?=a)", "\\Qa\\E", "é", "😂", "a+?", "(b)\\1" };
+        String alphabet = "abAB. 1é😂x";
+        for (int i = 0; i < 3_000; i++) {
+            List<String> filters = new ArrayList<>();
+            for (int n = 1 + rnd.nextInt(4); n > 0; n--) {
+                StringBuilder p = new StringBuilder(rnd.nextInt(4) == 0 ? "(?i)" : "");
+                for (int k = 1 + rnd.nextInt(5); k > 0; k--) p.append(atoms[rnd.nextInt(atoms.length)]);
+                filters.add(p.toString());
+            }
+            FilterEngine engine = FilterEngine.compile(filters);
+            List<Pattern> patterns = perEntry(filters);
+            for (int m = 0; m < 20; m++) {
+                StringBuilder sb = new StringBuilder();
+                for (int k = rnd.nextInt(10); k > 0; k--) {
+                    int at = rnd.nextInt(alphabet.length());
+                    sb.append(Character.isHighSurrogate(alphabet.charAt(at)) ? "😂" : Character.isLowSurrogate(alphabet.charAt(at)) ? "" : alphabet.charAt(at));
+                }
+                String s = sb.toString();
+                assertEquals(perEntry(patterns, s), engine.matches(s), () -> "filters " + filters + " message " + s);
+            }
+        }
+    }
+
+    /** Same mix as FilterSanitizeBenchmark.filterList, which lives in the jmh source set. */
+    private static List<String> blockList(int n) {
+        String[] words = { "freevbucks", "cheap subs", "follow4follow", "spam", "scam link", "giveaway bot", "ฟรีเครดิต", "無料" };
+        List<String> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            if (i % 100 == 99) list.add("(\\w)\\1{" + (8 + i % 5) + ",}" + i);
+            else if (i % 10 == 9) {
+                list.add(switch ((i / 10) % 3) {
+                    case 0 -> "(?i)buy\\s+followers\\s*" + i;
+                    case 1 -> "https?://(?:bit\\.ly|tinyurl\\.com)/x" + i;
+                    default -> "\\bwin\\s+\\d{3,}\\s*robux" + i;
+                });
+            } else list.add(words[i % words.length] + " " + i);
+        }
+        return list;
+    }
+}
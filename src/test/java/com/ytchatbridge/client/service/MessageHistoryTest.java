@@ -0,0 +1,146 @@
+package com.ytchatbridge.client.service;
+
+import com.ytchatbridge.client.model.ChatMessage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageHistoryTest {
+    private static ChatMessage text(String author, String body, long ts) {
+        return new ChatMessage(author, body, ChatMessage.Role.USER, ts);
+    }
+
+    @Test
+    void keepsKindAndDetail() {
+        MessageHistory h = new MessageHistory(16);
+        h.record(text("a", "hi", 1));
+        h.record(new ChatMessage("b", "", ChatMessage.Role.MEMBER, 2, ChatMessage.Kind.PAID, "$5.00"));
+        h.record(new ChatMessage("c", "", ChatMessage.Role.USER, 3, ChatMessage.Kind.MEMBERSHIP, "New member"));
+        List<ChatMessage> all = h.search("", 10);
+        assertEquals(3, all.size());
+        assertEquals(ChatMessage.Kind.TEXT, all.get(0).kind);
+        assertEquals(ChatMessage.Kind.PAID, all.get(1).kind);
+        assertEquals("$5.00", all.get(1).detail);
+        assertEquals(ChatMessage.Role.MEMBER, all.get(1).role);
+        assertEquals(ChatMessage.Kind.MEMBERSHIP, all.get(2).kind);
+        assertEquals("New member", all.get(2).detail);
+    }
+
+    private static ChatMessage paid(String author, String detail, long ts) {
+        return new ChatMessage(author, "", ChatMessage.Role.USER, ts, ChatMessage.Kind.PAID, detail);
+    }
+
+    private static List<String> shown(List<ChatMessage> messages) {
+        List<String> out = new ArrayList<>();
+        for (ChatMessage m : messages) out.add(m.kind + " " + m.detail + " " + m.message);
+        return out;
+    }
+
+    /** An empty entry at the write position used to stop eviction, and the next text overwrote the entry behind it. */
+    @Test
+    void emptyEntryAtWritePositionDoesNotShieldOlderText() {
+        MessageHistory h = new MessageHistory(8);
+        h.record(paid("a", "$5.00", 1));
+        h.record(text("a", "A".repeat(100), 2));
+        h.record(text("a", "B".repeat(900), 3));
+        h.record(text("a", "C".repeat(50), 4));
+        List<String> texts = new ArrayList<>();
+        for (ChatMessage m : h.search("", 10)) texts.add(m.message);
+        assertEquals(List.of("B".repeat(900), "C".repeat(50)), texts);
+    }
+
+    @Test
+    void emptyEntriesOfTheCurrentLapAreKept() {
+        MessageHistory h = new MessageHistory(8);
+        h.record(paid("a", "$5.00", 1));
+        h.record(new ChatMessage("b", "", ChatMessage.Role.USER, 2, ChatMessage.Kind.MEMBERSHIP, "New member"));
+        h.record(text("c", "hi", 3));
+        assertEquals(3, h.size());
+        assertEquals(List.of("PAID $5.00 ", "MEMBERSHIP New member ", "TEXT null hi"), shown(h.search("", 10)));
+    }
+
+    /** Eviction is oldest first whatever fills the arena, so the history is always the newest size() messages intact. */
+    @Test
+    void arenaPressureKeepsNewestMessagesIntact() {
+        MessageHistory h = new MessageHistory(64);
+        List<ChatMessage> all = new ArrayList<>();
+        Random rnd = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            ChatMessage m;
+            if (rnd.nextInt(3) == 0) m = paid("p" + rnd.nextInt(5), "$" + i, i);
+            else {
+                StringBuilder sb = new StringBuilder();
+                // 32-byte units, so the write position often lands exactly on an earlier empty entry
+                for (int n = 1 + rnd.nextInt(rnd.nextInt(4) == 0 ? 24 : 8); n > 0; n--) {
+                    sb.append(rnd.nextBoolean() ? "é".repeat(16) : String.valueOf((char) ('a' + i % 26)).repeat(32));
+                }
+                m = text("u" + rnd.nextInt(5), sb.toString(), i);
+            }
+            h.record(m);
+            all.add(m);
+            if (i % 97 == 0 || i > 19_900) {
+                int n = h.size();
+                assertTrue(n > 0);
+                assertEquals(shown(all.subList(all.size() - n, all.size())), shown(h.search("", 64)), "after " + i);
+            }
+        }
+    }
+
+    /** Across several chunks and after the ring wrapped, results equal a plain scan of the kept messages. */
+    @Test
+    void matchesNaiveScanAcrossChunks() {
+        int capacity = MessageHistory.SEARCH_CHUNK * 3 + 17;
+        MessageHistory h = new MessageHistory(capacity);
+        List<ChatMessage> kept = new ArrayList<>();
+        Random rnd = new Random(4);
+        for (int i = 0; i < capacity * 2 + 5; i++) {
+            ChatMessage m = rnd.nextInt(6) == 0 ? paid("user" + rnd.nextInt(50), "$" + i, i)
+                    : text("user" + rnd.nextInt(50), "msg " + i + (rnd.nextInt(7) == 0 ? " needle" : ""), i);
+            h.record(m);
+            kept.add(m);
+            if (kept.size() > capacity) kept.remove(0);
+        }
+        for (String query : new String[] { "", "NEEDLE", "user7", "msg 1\\d*0 " }) {
+            for (int limit : new int[] { 1, 10, capacity }) {
+                assertEquals(naive(kept, query, limit), shown(h.search(query, limit)), query + " limit " + limit);
+            }
+        }
+    }
+
+    private static List<String> naive(List<ChatMessage> kept, String query, int limit) {
+        boolean byAuthor = kept.stream().anyMatch(m -> m.displayName.equalsIgnoreCase(query));
+        Pattern p = query.isEmpty() || byAuthor ? null : Pattern.compile(query, Pattern.CASE_INSENSITIVE);
+        List<String> out = new ArrayList<>();
+        for (int i = kept.size() - 1; i >= 0 && out.size() < limit; i--) {
+            ChatMessage m = kept.get(i);
+            if (byAuthor && !m.displayName.equalsIgnoreCase(query)) continue;
+            if (p != null && !p.matcher(m.message).find()) continue;
+            out.add(0, m.kind + " " + m.detail + " " + m.message);
+        }
+        return out;
+    }
+
+    /** A catastrophically backtracking regex neither blocks recording nor runs forever. */
+    @Test
+    void slowRegexDoesNotBlockRecordAndTimesOut() throws Exception {
+        MessageHistory h = new MessageHistory(4096);
+        for (int i = 0; i < 4096; i++) h.record(text("a", "a".repeat(30), i));
+        CompletableFuture<List<ChatMessage>> search = CompletableFuture.supplyAsync(() -> h.search("(.*a){31}", 10));
+        Thread.sleep(100);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < 1000; i++) h.record(text("b", "while searching", 10_000 + i));
+        assertTrue(System.nanoTime() - t0 < TimeUnit.MILLISECONDS.toNanos(500), "record() waited on the search");
+        Exception e = assertThrows(Exception.class, () -> search.get(MessageHistory.SEARCH_BUDGET_MS * 3, TimeUnit.MILLISECONDS));
+        assertTrue(e.getCause() instanceof MessageHistory.SearchTimeoutException, "expected a timeout, got " + e);
+    }
+}
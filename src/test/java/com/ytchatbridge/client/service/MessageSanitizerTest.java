@@ -0,0 +1,78 @@
+package com.ytchatbridge.client.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/** {@link MessageSanitizer} against the regex pipeline it replaced in BridgeServiceClient.onMessage. */
+class MessageSanitizerTest {
+    // Everything the scanner treats specially, plus ordinary text; surrogates are added separately
+    private static final char[] ALPHABET = {
+        '§', '§', ' ', ' ', 'a', 'b', 'Z', '0', 'é', 'ก', '…',
+        '\n', '\r', '\t', '\u0000', '\u001B', '\u007F', '\u0085', '\u2028', '\u2029', '\u00A0'
+    };
+    private static final String[] PAIRS = { "😂", "🔥", "𝕏" };
+
+    /** The old code: two replaceAll passes, trim, then a UTF-16 substring plus "…". */
+    private static String legacy(String s, int max) {
+        String sanitized = s == null ? "" : s.replaceAll("§.", "").replaceAll("\\p{Cntrl}", "").trim();
+        return sanitized.length() > max ? sanitized.substring(0, max) + "…" : sanitized;
+    }
+
+    private static String random(Random rnd, boolean surrogates) {
+        StringBuilder sb = new StringBuilder();
+        int len = rnd.nextInt(24);
+        for (int i = 0; i < len; i++) {
+            if (surrogates && rnd.nextInt(6) == 0) sb.append(PAIRS[rnd.nextInt(PAIRS.length)]);
+            else sb.append(ALPHABET[rnd.nextInt(ALPHABET.length)]);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void matchesRegexPipelineIncludingTruncation() {
+        Random rnd = new Random(8);
+        for (int i = 0; i < 300_000; i++) {
+            String s = random(rnd, false);
+            int max = rnd.nextInt(20);
+            assertEquals(legacy(s, max), MessageSanitizer.sanitize(s, max), () -> "input " + escape(s) + " max " + max);
+        }
+    }
+
+    /** Code point truncation is deliberate, so with surrogate pairs only strip and trim are compared. */
+    @Test
+    void matchesRegexPipelineWithSurrogatePairs() {
+        Random rnd = new Random(9);
+        for (int i = 0; i < 300_000; i++) {
+            String s = random(rnd, true);
+            assertEquals(legacy(s, Integer.MAX_VALUE), MessageSanitizer.sanitize(s, Integer.MAX_VALUE), () -> "input " + escape(s));
+        }
+    }
+
+    @Test
+    void truncatesByCodePoint() {
+        assertEquals("ab😂…", MessageSanitizer.sanitize("ab😂😂", 3));
+        assertEquals("😂😂", MessageSanitizer.sanitize("😂😂", 2));
+        assertEquals("…", MessageSanitizer.sanitize("😂", 0));
+    }
+
+    @Test
+    void returnsCleanInputUnchanged() {
+        String s = "hello from brazil 😂";
+        assertSame(s, MessageSanitizer.sanitize(s, 256));
+        assertEquals("", MessageSanitizer.sanitize(null, 256));
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x20 || c >= 0x7F) sb.append(String.format("\\u%04X", (int) c));
+            else sb.append(c);
+        }
+        return sb.append('"').toString();
+    }
+}